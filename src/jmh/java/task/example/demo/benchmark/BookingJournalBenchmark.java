@@ -0,0 +1,95 @@
+package task.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.journal.BookingJournal;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.service.BookingService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable write of one booking: {@code journal} appends it to {@link BookingJournal} and waits for
+ * the group fsync, {@code jpa} inserts it through {@link BookingRepository} in its own transaction.
+ * Note that the JPA path writes to in-memory H2 and never touches the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class BookingJournalBenchmark {
+
+    @Param({"journal", "jpa"})
+    public String mode;
+
+    private Path dir;
+    private ConfigurableApplicationContext context;
+    private BookingJournal journal;
+    private BookingRepository bookingRepository;
+    private TransactionTemplate transactionTemplate;
+    private TicketPool pool;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        context = new SpringApplicationBuilder(SpringTasksApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:jmh-journal-" + mode,
+                "--booking.journal.enabled=" + mode.equals("journal"),
+                "--booking.journal.dir=" + dir);
+        journal = context.getBean(BookingJournal.class);
+        bookingRepository = context.getBean(BookingRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        pool = context.getBean(BookingService.class).createEvent("Journal", Integer.MAX_VALUE / 2, 10.0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object write1Thread() {
+        return write();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object write8Threads() {
+        return write();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Object write64Threads() {
+        return write();
+    }
+
+    private Object write() {
+        Booking booking = new Booking("bench", pool, 1);
+        if (mode.equals("journal")) {
+            journal.recordBookings(List.of(booking));
+            return booking;
+        }
+        return transactionTemplate.execute(status -> bookingRepository.save(booking));
+    }
+}
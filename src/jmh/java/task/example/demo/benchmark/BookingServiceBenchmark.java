@@ -0,0 +1,68 @@
+package task.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.service.BookingService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BookingService#bookTickets} against embedded H2, all threads on one hot pool.
+ * The simulated processing delay is switched off so the numbers reflect the reservation path
+ * (plain transaction, in-memory ledger or group commit) rather than {@code Thread.sleep}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class BookingServiceBenchmark {
+
+    @Param({"db", "ledger", "group-commit"})
+    public String mode;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private Long poolId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(SpringTasksApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:jmh-" + mode,
+                "--booking.processing-delay-ms=0",
+                "--booking.ledger.enabled=" + mode.equals("ledger"),
+                "--booking.group-commit.enabled=" + mode.equals("group-commit"));
+        bookingService = context.getBean(BookingService.class);
+        TicketPool pool = bookingService.createEvent("Hot Pool", Integer.MAX_VALUE / 2, 10.0);
+        poolId = pool.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Booking book1Thread() {
+        return bookingService.bookTickets(poolId, "bench", 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Booking book8Threads() {
+        return bookingService.bookTickets(poolId, "bench", 1);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Booking book64Threads() {
+        return bookingService.bookTickets(poolId, "bench", 1);
+    }
+}
@@ -0,0 +1,49 @@
+package task.example.demo.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation and JSON cost of the objects every booking response creates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntitySerializationBenchmark {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    private TicketPool pool;
+    private Booking booking;
+
+    @Setup
+    public void setUp() {
+        pool = new TicketPool("Benchmark Concert", 10_000, 49.99);
+        pool.setId(1L);
+        booking = new Booking("bench", pool, 2);
+        booking.setId(1L);
+    }
+
+    @Benchmark
+    public Booking newBooking() {
+        return new Booking("bench", pool, 2);
+    }
+
+    @Benchmark
+    public byte[] serializeTicketPool() {
+        return objectMapper.writeValueAsBytes(pool);
+    }
+
+    @Benchmark
+    public byte[] serializeBooking() {
+        return objectMapper.writeValueAsBytes(booking);
+    }
+}
@@ -0,0 +1,67 @@
+package task.example.demo.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import task.example.demo.entity.AppUser;
+import task.example.demo.repository.UserRepository;
+import task.example.demo.security.JwtAuthFilter;
+import task.example.demo.security.JwtService;
+import task.example.demo.security.PrincipalCache;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link JwtAuthFilter}. {@code publicRequest} takes the skip path and is the
+ * baseline for building the mock request/response; the difference to {@code authenticatedRequest}
+ * is what authentication adds to every {@code /api/**} call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        AppUser user = new AppUser(1L, "bench", "unused", 0);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        JwtService jwtService = new JwtService(JwtServiceBenchmark.SECRET, 3_600_000, 1_209_600_000, 100_000, new SimpleMeterRegistry());
+        PrincipalCache principalCache = new PrincipalCache(userRepository, Mockito.mock(PlatformTransactionManager.class), 300_000, 100_000, new SimpleMeterRegistry());
+        filter = new JwtAuthFilter(jwtService, principalCache, Set.of(), new SimpleMeterRegistry());
+        authorization = "Bearer " + jwtService.generateToken(1L, "bench", 0);
+    }
+
+    @Benchmark
+    public int authenticatedRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/book");
+        request.addHeader("Authorization", authorization);
+        return run(request);
+    }
+
+    @Benchmark
+    public int publicRequest() throws Exception {
+        return run(new MockHttpServletRequest("POST", "/api/auth/login"));
+    }
+
+    private int run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return response.getStatus();
+    }
+}
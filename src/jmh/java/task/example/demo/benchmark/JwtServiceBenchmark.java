@@ -0,0 +1,48 @@
+package task.example.demo.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import task.example.demo.security.JwtService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification cost. {@code extractUsernameUncached} uses a zero-size verified-token
+ * cache, so it pays for the HMAC check and claim parsing on every call like the original filter did.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtService cached;
+    private JwtService uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtService(SECRET, 3_600_000, 1_209_600_000, 100_000, new SimpleMeterRegistry());
+        uncached = new JwtService(SECRET, 3_600_000, 1_209_600_000, 0, new SimpleMeterRegistry());
+        token = cached.generateToken(1L, "bench", 0);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(1L, "bench", 0);
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return cached.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        return uncached.extractUsername(token);
+    }
+}
@@ -0,0 +1,73 @@
+package task.example.demo.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import task.example.demo.security.RateLimitProperties;
+import task.example.demo.security.RateLimiter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one {@link RateLimiter#tryAcquire} under contention. {@code hot} sends every thread to
+ * the same bucket (worst case for the CAS); {@code spread} draws from 16k users, closer to real
+ * traffic and dominated by the bucket lookup. The limit is high enough that every call takes a token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int USERS = 1 << 14;
+
+    @Param({"hot", "spread"})
+    public String keys;
+
+    private RateLimiter rateLimiter;
+    private RateLimitProperties.Route route;
+    private String[] users;
+
+    @State(Scope.Thread)
+    public static class Caller {
+        int next = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Setup
+    public void setUp() {
+        route = new RateLimitProperties.Route("POST", List.of("/api/book"), RateLimitProperties.Key.USER, 1_000_000, 1e9);
+        rateLimiter = new RateLimiter(new RateLimitProperties(true, 100_000, 600_000, Map.of("bench", route)),
+                new SimpleMeterRegistry());
+        users = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = "user-" + i;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long acquire1Thread(Caller caller) {
+        return acquire(caller);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long acquire8Threads(Caller caller) {
+        return acquire(caller);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long acquire64Threads(Caller caller) {
+        return acquire(caller);
+    }
+
+    private long acquire(Caller caller) {
+        String key = keys.equals("hot") ? "bench" : users[caller.next++ & (USERS - 1)];
+        return rateLimiter.tryAcquire("bench", route, key);
+    }
+}
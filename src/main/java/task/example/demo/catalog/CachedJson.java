@@ -0,0 +1,4 @@
+package task.example.demo.catalog;
+
+public record CachedJson(byte[] body, String etag) {
+}
@@ -0,0 +1,97 @@
+package task.example.demo.catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.event.InventoryChangedEvent;
+import task.example.demo.event.TicketPoolCreatedEvent;
+import task.example.demo.replica.ReadRouting;
+import task.example.demo.service.BookingService;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialized JSON for {@code GET /api/events} and {@code GET /api/events/{id}}, with strong ETags.
+ * New events invalidate the list immediately. Inventory changes only mark entries stale, and a stale
+ * entry keeps being served until it is {@code booking.catalog.max-staleness-ms} old, so polling
+ * during a sale costs at most one rebuild per event per staleness window. Rebuilds read the primary:
+ * an entry is taken as current when it is built, which a lagging replica's copy would not be.
+ */
+@Component
+public class EventCatalog {
+
+    private final BookingService bookingService;
+    private final ReadRouting readRouting;
+    private final ObjectMapper objectMapper;
+    private final long maxStalenessNanos;
+
+    private final ConcurrentHashMap<Long, Entry> events = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> changedAt = new ConcurrentHashMap<>();
+    private volatile Entry all;
+    private volatile long anyChangedAt = System.nanoTime();
+    private volatile long createdAt = System.nanoTime();
+
+    public EventCatalog(BookingService bookingService,
+                        ReadRouting readRouting,
+                        ObjectMapper objectMapper,
+                        @Value("${booking.catalog.max-staleness-ms:500}") long maxStalenessMs) {
+        this.bookingService = bookingService;
+        this.readRouting = readRouting;
+        this.objectMapper = objectMapper;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+    }
+
+    public CachedJson allEvents() {
+        Entry entry = all;
+        long now = System.nanoTime();
+        if (entry == null || entry.builtAt - createdAt <= 0 || isExpired(entry, anyChangedAt, now)) {
+            entry = new Entry(now, serialize(readRouting.onPrimary(bookingService::getAllEvents)));
+            all = entry;
+        }
+        return entry.json;
+    }
+
+    public CachedJson event(Long id) {
+        Entry entry = events.get(id);
+        long now = System.nanoTime();
+        if (entry == null || isExpired(entry, changedAt.getOrDefault(id, entry.builtAt - 1), now)) {
+            TicketPool pool = readRouting.onPrimary(() -> bookingService.getEvent(id));
+            if (pool == null) {
+                events.remove(id);
+                return null;
+            }
+            entry = new Entry(now, serialize(pool));
+            events.put(id, entry);
+        }
+        return entry.json;
+    }
+
+    @EventListener
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        long now = System.nanoTime();
+        changedAt.put(event.ticketPoolId(), now);
+        anyChangedAt = now;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketPoolCreated(TicketPoolCreatedEvent event) {
+        createdAt = System.nanoTime();
+    }
+
+    private boolean isExpired(Entry entry, long lastChange, long now) {
+        return lastChange - entry.builtAt >= 0 && now - entry.builtAt > maxStalenessNanos;
+    }
+
+    private CachedJson serialize(Object value) {
+        byte[] body = objectMapper.writeValueAsBytes(value);
+        return new CachedJson(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+    }
+
+    private record Entry(long builtAt, CachedJson json) {
+    }
+}
@@ -0,0 +1,16 @@
+package task.example.demo.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Every event id becomes a tag value on booking.* meters; past the cap new ones are dropped.
+    @Bean
+    public MeterFilter bookingEventTagLimit(@Value("${booking.metrics.max-event-tags:1000}") int maxEventTags) {
+        return MeterFilter.maximumAllowableTags("booking", "event", maxEventTags, MeterFilter.deny());
+    }
+}
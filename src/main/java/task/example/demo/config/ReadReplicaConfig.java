@@ -0,0 +1,54 @@
+package task.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import task.example.demo.replica.ReadRouting;
+import task.example.demo.replica.ReadWriteRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * With {@code booking.replica.enabled=true} the application's DataSource routes read-only
+ * transactions to {@code booking.replica.url} and everything else to {@code spring.datasource.url}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("booking.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${booking.replica.url}") String url,
+                                              @Value("${booking.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${booking.replica.password:${spring.datasource.password:}}") String password) {
+        return DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReadRouting routing) {
+        ReadWriteRoutingDataSource routed = new ReadWriteRoutingDataSource(primary, replica, routing);
+        routed.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routed);
+    }
+}
@@ -0,0 +1,34 @@
+package task.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Two schedulers. {@code taskScheduler} is Spring Boot's default, sized by
+ * {@code spring.task.scheduling.pool.size}, and runs the short periodic jobs that other work waits on:
+ * ledger flush, waiting-room ticks, lease returns and the replica heartbeat. Jobs that scan or copy
+ * whole tables or files name {@link #BACKGROUND_SCHEDULER} instead, so a long run of one of them
+ * cannot hold those back.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String BACKGROUND_SCHEDULER = "backgroundScheduler";
+
+    // Declaring any scheduler bean turns off Boot's default one, so it is declared here the same way.
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(BACKGROUND_SCHEDULER)
+    public ThreadPoolTaskScheduler backgroundScheduler(@Value("${booking.scheduling.background-threads:3}") int threads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(threads);
+        scheduler.setThreadNamePrefix("background-");
+        return scheduler;
+    }
+}
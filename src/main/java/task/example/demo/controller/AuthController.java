@@ -7,16 +7,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import task.example.demo.dto.AuthResponse;
 import task.example.demo.dto.LoginRequest;
+import task.example.demo.dto.RefreshRequest;
 import task.example.demo.dto.RegisterRequest;
+import task.example.demo.security.PasswordHasherBusyException;
 import task.example.demo.service.AuthService;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
-@Tag(name = "Auth", description = "User registration and login (JWT)")
+@Tag(name = "Auth", description = "User registration, login and token refresh (JWT)")
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -42,10 +46,17 @@ public class AuthController {
                     content = @Content(mediaType = "application/json",
                             examples = @ExampleObject(value = "{\"error\":\"Username already exists\"}")
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Password hashing is saturated; retry after Retry-After seconds",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Too many logins in progress, try again shortly\"}")
+                    )
             )
     })
     @PostMapping("/register")
-    public ResponseEntity<?> register(
+    public CompletableFuture<ResponseEntity<?>> register(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Registration payload",
                     required = true,
@@ -55,24 +66,34 @@ public class AuthController {
             )
             @RequestBody RegisterRequest req
     ) {
+        CompletableFuture<Void> registered;
         try {
-            authService.register(req.username(), req.password());
-            return ResponseEntity.ok(Map.of("message", "Registered"));
+            registered = authService.register(req.username(), req.password());
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
         }
+        return registered.<ResponseEntity<?>>handle((result, error) -> {
+            if (error == null) {
+                return ResponseEntity.ok(Map.of("message", "Registered"));
+            }
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            return cause instanceof PasswordHasherBusyException
+                    ? busy(cause)
+                    : ResponseEntity.badRequest().body(Map.of("error", cause.getMessage()));
+        });
     }
 
     @Operation(
             summary = "Login and get JWT token",
-            description = "Returns a JWT token. Use it for protected endpoints as: Authorization: Bearer <token>"
+            description = "Returns a JWT token and a refresh token. Use the token for protected endpoints as: "
+                    + "Authorization: Bearer <token>; when it expires, exchange the refresh token at /api/auth/refresh."
     )
     @ApiResponses({
             @ApiResponse(
                     responseCode = "200",
                     description = "Login successful, JWT returned",
                     content = @Content(mediaType = "application/json",
-                            examples = @ExampleObject(value = "{\"token\":\"eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...\"}")
+                            examples = @ExampleObject(value = "{\"token\":\"eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...\",\"refreshToken\":\"eyJhbGciOiJIUzI1NiJ9...\"}")
                     )
             ),
             @ApiResponse(
@@ -81,10 +102,17 @@ public class AuthController {
                     content = @Content(mediaType = "application/json",
                             examples = @ExampleObject(value = "{\"error\":\"Invalid credentials\"}")
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Password hashing is saturated; retry after Retry-After seconds",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Too many logins in progress, try again shortly\"}")
+                    )
             )
     })
     @PostMapping("/login")
-    public ResponseEntity<?> login(
+    public CompletableFuture<ResponseEntity<?>> login(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Login payload",
                     required = true,
@@ -94,11 +122,62 @@ public class AuthController {
             )
             @RequestBody LoginRequest req
     ) {
+        CompletableFuture<ResponseEntity<?>> tokens;
         try {
-            String token = authService.login(req.username(), req.password());
-            return ResponseEntity.ok(new AuthResponse(token));
+            tokens = authService.login(req.username(), req.password()).<ResponseEntity<?>>thenApply(ResponseEntity::ok);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body(Map.of("error", e.getMessage())));
+        }
+        return tokens.exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            return cause instanceof PasswordHasherBusyException
+                    ? busy(cause)
+                    : ResponseEntity.status(401).body(Map.of("error", cause.getMessage()));
+        });
+    }
+
+    @Operation(
+            summary = "Refresh the JWT token",
+            description = "Exchanges a refresh token from /api/auth/login for a new token and refresh token, "
+                    + "without the password. Refresh tokens stop working after POST /api/users/me/logout-all."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "New tokens returned",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"token\":\"eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...\",\"refreshToken\":\"eyJhbGciOiJIUzI1NiJ9...\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Refresh token invalid, expired or revoked",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid refresh token\"}")
+                    )
+            )
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Refresh payload",
+                    required = true,
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"refreshToken\":\"eyJhbGciOiJIUzI1NiJ9...\"}")
+                    )
+            )
+            @RequestBody RefreshRequest req
+    ) {
+        try {
+            return ResponseEntity.ok(authService.refresh(req.refreshToken()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(401).body(Map.of("error", e.getMessage()));
         }
     }
+
+    private static ResponseEntity<?> busy(Throwable cause) {
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", cause.getMessage()));
+    }
 }
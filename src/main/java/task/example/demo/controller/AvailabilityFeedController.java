@@ -0,0 +1,57 @@
+package task.example.demo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import task.example.demo.config.OpenApiConfig;
+import task.example.demo.feed.AvailabilityFeed;
+
+import java.io.IOException;
+
+@Tag(name = "Events & Bookings", description = "Create events, list events, book tickets, and view bookings")
+@SecurityRequirement(name = OpenApiConfig.BEARER_SCHEME)
+@RestController
+@RequestMapping("/api/events/{id}")
+@RequiredArgsConstructor
+public class AvailabilityFeedController {
+
+    private final AvailabilityFeed availabilityFeed;
+
+    @Operation(
+            summary = "Stream availability",
+            description = "Server-Sent Events stream of availableTickets for the event: the current count first, "
+                    + "then at most one 'availability' frame per booking.feed.interval-ms while it changes. "
+                    + "Use this instead of polling GET /api/events/{id}. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            examples = @ExampleObject(value = """
+                                    event: availability
+                                    data: {"eventId":1,"availableTickets":42}
+                                    """)
+                    )
+            ),
+            @ApiResponse(responseCode = "404", description = "Event not found")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void stream(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!availabilityFeed.subscribe(id, request, response)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+        }
+    }
+}
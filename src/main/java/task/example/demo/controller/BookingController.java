@@ -1,22 +1,42 @@
 package task.example.demo.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import task.example.demo.catalog.CachedJson;
+import task.example.demo.catalog.EventCatalog;
 import task.example.demo.config.OpenApiConfig;
+import task.example.demo.dto.BookingPage;
+import task.example.demo.dto.CartRequest;
+import task.example.demo.dto.EventRequest;
+import task.example.demo.dto.UserBookingPage;
 import task.example.demo.entity.Booking;
 import task.example.demo.entity.TicketPool;
+import task.example.demo.queue.WaitingRoom;
 import task.example.demo.service.BookingService;
+import task.example.demo.service.IdempotencyStore;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @Tag(name = "Events & Bookings", description = "Create events, list events, book tickets, and view bookings")
 @SecurityRequirement(name = OpenApiConfig.BEARER_SCHEME) // shows lock + Authorize usage
@@ -25,7 +45,14 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class BookingController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String OTHER_USER_ERROR = "Bookings can only be made for the authenticated user";
+
     private final BookingService bookingService;
+    private final EventCatalog eventCatalog;
+    private final ObjectMapper objectMapper;
+    private final WaitingRoom waitingRoom;
+    private final IdempotencyStore idempotencyStore;
 
     @Operation(
             summary = "Create an event",
@@ -80,12 +107,52 @@ public class BookingController {
         return ResponseEntity.ok(pool);
     }
 
+    @Operation(
+            summary = "Create events in bulk",
+            description = "Creates many events (ticket pools) in one transaction using batched inserts. "
+                    + "Intended for importing event catalogs. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Events created",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = TicketPool.class)))),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Missing/invalid token",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
+                    )
+            )
+    })
+    @PostMapping("/events/bulk")
+    public ResponseEntity<List<TicketPool>> createEvents(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Events to create",
+                    required = true,
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    [
+                                      { "name": "QA Nightmare Concert", "totalTickets": 50, "price": 25.5 },
+                                      { "name": "Regression Jazz Night", "totalTickets": 120, "price": 18.0 }
+                                    ]
+                                    """)
+                    )
+            )
+            @RequestBody List<EventRequest> requests
+    ) {
+        return ResponseEntity.ok(bookingService.createEvents(requests));
+    }
+
     @Operation(
             summary = "List all events",
-            description = "Returns all available events (ticket pools). Requires JWT Bearer token."
+            description = "Returns all available events (ticket pools). Responses carry a strong ETag; "
+                    + "send it back in If-None-Match to get 304 Not Modified. Requires JWT Bearer token."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "List of events returned"),
+            @ApiResponse(responseCode = "200", description = "List of events returned",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = TicketPool.class)))),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
             @ApiResponse(
                     responseCode = "401",
                     description = "Missing/invalid token",
@@ -95,16 +162,20 @@ public class BookingController {
             )
     })
     @GetMapping("/events")
-    public ResponseEntity<List<TicketPool>> getAllEvents() {
-        return ResponseEntity.ok(bookingService.getAllEvents());
+    public ResponseEntity<byte[]> getAllEvents() {
+        return cachedJson(eventCatalog.allEvents());
     }
 
     @Operation(
             summary = "Get event by ID",
-            description = "Returns one event (ticket pool) by its ID. Requires JWT Bearer token."
+            description = "Returns one event (ticket pool) by its ID. Responses carry a strong ETag; "
+                    + "send it back in If-None-Match to get 304 Not Modified. Requires JWT Bearer token."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Event returned"),
+            @ApiResponse(responseCode = "200", description = "Event returned",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = TicketPool.class))),
+            @ApiResponse(responseCode = "304", description = "Unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Event not found"),
             @ApiResponse(
                     responseCode = "401",
@@ -115,18 +186,22 @@ public class BookingController {
             )
     })
     @GetMapping("/events/{id}")
-    public ResponseEntity<TicketPool> getEvent(@PathVariable Long id) {
-        TicketPool pool = bookingService.getEvent(id);
-        if (pool == null) {
+    public ResponseEntity<byte[]> getEvent(@PathVariable Long id) {
+        CachedJson event = eventCatalog.event(id);
+        if (event == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(pool);
+        return cachedJson(event);
     }
 
     @Operation(
             summary = "Book tickets",
             description = "Books tickets for an event. Requires JWT Bearer token. "
-                    + "Send eventId, username, and quantity in request body."
+                    + "Send eventId and quantity in request body; the booking is made for the token's user. "
+                    + "A username in the body is optional and must be that user. "
+                    + "Events with a waiting room also need an admitted queue token in the X-Queue-Token header. "
+                    + "Send an Idempotency-Key header to make retries safe: repeats with the same key get the "
+                    + "first booking back instead of booking again."
     )
     @ApiResponses({
             @ApiResponse(
@@ -159,10 +234,17 @@ public class BookingController {
                     content = @Content(mediaType = "application/json",
                             examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Body username is not the authenticated user",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"" + OTHER_USER_ERROR + "\"}")
+                    )
             )
     })
     @PostMapping("/book")
-    public ResponseEntity<?> bookTickets(
+    public CompletableFuture<ResponseEntity<?>> bookTickets(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Booking payload",
                     required = true,
@@ -170,32 +252,203 @@ public class BookingController {
                             examples = @ExampleObject(value = """
                                     {
                                       "eventId": 1,
-                                      "username": "gio",
                                       "quantity": 2
                                     }
                                     """)
                     )
             )
-            @RequestBody Map<String, Object> request
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = WaitingRoomController.QUEUE_TOKEN_HEADER, required = false) String queueToken,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Authentication authentication
     ) {
+        Long ticketPoolId;
+        String username;
+        int quantity;
         try {
-            Long ticketPoolId = ((Number) request.get("eventId")).longValue();
-            String username = (String) request.get("username");
-            int quantity = (Integer) request.get("quantity");
+            ticketPoolId = ((Number) request.get("eventId")).longValue();
+            username = (String) request.get("username");
+            quantity = (Integer) request.get("quantity");
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
+        }
+        if (!isCaller(username, authentication)) {
+            return CompletableFuture.completedFuture(forOtherUser());
+        }
+        String bookedFor = authentication.getName();
+
+        Supplier<CompletableFuture<Booking>> book = () -> {
+            boolean queued = waitingRoom.admit(ticketPoolId, authentication.getName(), queueToken);
+            long start = System.nanoTime();
+            CompletableFuture<Booking> booking = bookingService.bookTicketsAsync(ticketPoolId, bookedFor, quantity);
+            if (queued) {
+                booking.whenComplete((result, error) -> waitingRoom.recordBooking(ticketPoolId, System.nanoTime() - start));
+            }
+            return booking;
+        };
 
-            Booking booking = bookingService.bookTickets(ticketPoolId, username, quantity);
-            return ResponseEntity.ok(booking);
+        CompletableFuture<Booking> booking;
+        try {
+            booking = idempotencyKey == null
+                    ? book.get()
+                    : idempotencyStore.execute(authentication.getName() + ':' + idempotencyKey,
+                            ticketPoolId + "|" + quantity, book);
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
+        }
+
+        return booking.<ResponseEntity<?>>handle((result, error) -> {
+            if (error == null) {
+                return ResponseEntity.ok(result);
+            }
+            Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            return ResponseEntity.badRequest().body(Map.of("error", cause.getMessage()));
+        });
+    }
+
+    @Operation(
+            summary = "Book a cart of events",
+            description = "Books tickets for several events at once, all or nothing, in one transaction. "
+                    + "Lines for the same event are merged. The bookings are made for the token's user; "
+                    + "a username in the body is optional and must be that user. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Every line booked",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = Booking.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Cart rejected; nothing was booked",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Not enough tickets available for event 2\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Missing/invalid token",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Body username is not the authenticated user",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"" + OTHER_USER_ERROR + "\"}")
+                    )
+            )
+    })
+    @PostMapping("/book/cart")
+    public CompletableFuture<ResponseEntity<?>> bookCart(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Cart payload",
+                    required = true,
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "lines": [
+                                        { "eventId": 1, "quantity": 2 },
+                                        { "eventId": 2, "quantity": 1 }
+                                      ]
+                                    }
+                                    """)
+                    )
+            )
+            @RequestBody CartRequest request,
+            Authentication authentication
+    ) {
+        if (!isCaller(request.username(), authentication)) {
+            return CompletableFuture.completedFuture(forOtherUser());
+        }
+        try {
+            if (request.lines() != null) {
+                request.lines().forEach(line -> waitingRoom.requireNoRoom(line.eventId()));
+            }
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
         }
+        return bookingService.bookCartAsync(authentication.getName(), request.lines())
+                .<ResponseEntity<?>>handle((bookings, error) -> {
+                    if (error == null) {
+                        return ResponseEntity.ok(bookings);
+                    }
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    return ResponseEntity.badRequest().body(Map.of("error", cause.getMessage()));
+                });
+    }
+
+    @Operation(
+            summary = "List my bookings",
+            description = "Returns one page of the caller's bookings, newest first. "
+                    + "Pass the returned nextCursor as 'before' to get the next page; it is null on the last page. "
+                    + "Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Bookings returned",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "items": [
+                                        {
+                                          "id": 10,
+                                          "eventId": 1,
+                                          "quantity": 2,
+                                          "totalPrice": 51.0,
+                                          "bookedAt": "2026-01-15T18:30:00"
+                                        }
+                                      ],
+                                      "nextCursor": 10
+                                    }
+                                    """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Missing/invalid token",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
+                    )
+            )
+    })
+    @GetMapping(value = "/bookings/me", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<UserBookingPage> getMyBookings(@RequestParam(defaultValue = "" + Long.MAX_VALUE) long before,
+                                                         @RequestParam(defaultValue = "100") int limit,
+                                                         Authentication authentication) {
+        return ResponseEntity.ok(bookingService.getBookingsForUser(authentication.getName(), before, limit));
     }
 
     @Operation(
             summary = "List bookings for an event",
-            description = "Returns all bookings for a given event ID. Requires JWT Bearer token."
+            description = "Returns one page of bookings for a given event ID, ordered by booking ID. "
+                    + "Pass the returned nextCursor as 'after' to get the next page; it is null on the last page. "
+                    + "Requires JWT Bearer token."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Bookings returned"),
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Bookings returned",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "items": [
+                                        {
+                                          "id": 10,
+                                          "username": "gio",
+                                          "quantity": 2,
+                                          "totalPrice": 51.0,
+                                          "bookedAt": "2026-01-15T18:30:00"
+                                        }
+                                      ],
+                                      "nextCursor": 10
+                                    }
+                                    """)
+                    )
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Missing/invalid token",
@@ -204,8 +457,63 @@ public class BookingController {
                     )
             )
     })
-    @GetMapping("/events/{id}/bookings")
-    public ResponseEntity<List<Booking>> getBookings(@PathVariable Long id) {
-        return ResponseEntity.ok(bookingService.getBookingsForEvent(id));
+    @GetMapping(value = "/events/{id}/bookings", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookingPage> getBookings(@PathVariable Long id,
+                                                   @RequestParam(defaultValue = "0") long after,
+                                                   @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(bookingService.getBookingsForEvent(id, after, limit));
+    }
+
+    @Operation(
+            summary = "Stream all bookings for an event",
+            description = "Streams every booking for a given event ID as newline-delimited JSON "
+                    + "(Accept: application/x-ndjson), one booking per line. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Bookings streamed",
+                    content = @Content(mediaType = "application/x-ndjson",
+                            examples = @ExampleObject(value = """
+                                    {"id":10,"username":"gio","quantity":2,"totalPrice":51.0,"bookedAt":"2026-01-15T18:30:00"}
+                                    {"id":11,"username":"nika","quantity":1,"totalPrice":25.5,"bookedAt":"2026-01-15T18:30:01"}
+                                    """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Missing/invalid token",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
+                    )
+            )
+    })
+    @GetMapping(value = "/events/{id}/bookings", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookings(@PathVariable Long id) {
+        StreamingResponseBody body = out -> bookingService.streamBookingsForEvent(id, row -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(row));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private ResponseEntity<byte[]> cachedJson(CachedJson json) {
+        return ResponseEntity.ok()
+                .eTag(json.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json.body());
+    }
+
+    // Bookings always belong to the caller; a username in the body is only checked against it.
+    private static boolean isCaller(String username, Authentication authentication) {
+        return username == null || username.equals(authentication.getName());
+    }
+
+    private static ResponseEntity<?> forOtherUser() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", OTHER_USER_ERROR));
     }
 }
@@ -0,0 +1,137 @@
+package task.example.demo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import task.example.demo.config.OpenApiConfig;
+import task.example.demo.dto.HoldRequest;
+import task.example.demo.queue.WaitingRoom;
+import task.example.demo.service.HoldService;
+
+import java.util.Map;
+
+@Tag(name = "Seat holds", description = "Reserve tickets for a limited time, then confirm them as a booking")
+@SecurityRequirement(name = OpenApiConfig.BEARER_SCHEME)
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+public class HoldController {
+
+    private final HoldService holdService;
+    private final WaitingRoom waitingRoom;
+
+    @Operation(
+            summary = "Hold tickets",
+            description = "Takes tickets out of the event immediately and holds them for the current user. "
+                    + "Unless confirmed before expiresAt, the tickets go back to the event. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tickets held",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "id": 7,
+                                      "eventId": 1,
+                                      "quantity": 2,
+                                      "totalPrice": 51.0,
+                                      "expiresAt": "2026-01-10T18:05:00"
+                                    }
+                                    """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Hold rejected (e.g., not enough tickets)",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Not enough tickets available\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Missing/invalid token",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
+                    )
+            )
+    })
+    @PostMapping
+    public ResponseEntity<?> hold(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Hold payload",
+                    required = true,
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "eventId": 1,
+                                      "quantity": 2
+                                    }
+                                    """)
+                    )
+            )
+            @RequestBody HoldRequest request,
+            Authentication authentication
+    ) {
+        try {
+            waitingRoom.requireNoRoom(request.eventId());
+            return ResponseEntity.ok(holdService.hold(request.eventId(), authentication.getName(), request.quantity()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Confirm a hold",
+            description = "Turns one of the current user's unexpired holds into a booking. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Booking confirmed",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "id": 10,
+                                      "username": "gio",
+                                      "quantity": 2,
+                                      "ticketPool": {
+                                        "id": 1,
+                                        "name": "QA Nightmare Concert"
+                                      }
+                                    }
+                                    """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Hold unknown, already confirmed or expired",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Hold expired\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Missing/invalid token",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
+                    )
+            )
+    })
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<?> confirm(@PathVariable Long id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(holdService.confirm(id, authentication.getName()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
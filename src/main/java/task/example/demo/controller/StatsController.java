@@ -0,0 +1,83 @@
+package task.example.demo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import task.example.demo.config.OpenApiConfig;
+import task.example.demo.dto.EventStats;
+import task.example.demo.dto.SalesStats;
+import task.example.demo.inventory.AvailabilityIndex;
+import task.example.demo.stats.SalesAggregates;
+
+@Tag(name = "Sales stats", description = "Tickets sold, bookings and revenue for dashboards")
+@SecurityRequirement(name = OpenApiConfig.BEARER_SCHEME)
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final SalesAggregates salesAggregates;
+    private final AvailabilityIndex availabilityIndex;
+
+    @Operation(
+            summary = "Sales of one event",
+            description = "Served from in-memory aggregates updated with every booking, not from the bookings table. "
+                    + "Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stats returned",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "eventId": 1,
+                                      "ticketsSold": 42,
+                                      "bookings": 30,
+                                      "revenue": 1071.0
+                                    }
+                                    """)
+                    )
+            ),
+            @ApiResponse(responseCode = "404", description = "Event not found")
+    })
+    @GetMapping("/events/{id}/stats")
+    public ResponseEntity<EventStats> eventStats(@PathVariable Long id) {
+        if (!availabilityIndex.exists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(salesAggregates.event(id));
+    }
+
+    @Operation(
+            summary = "Sales across all events",
+            description = "Totals over every event; events counts those with at least one booking. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Stats returned",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "events": 3,
+                                      "ticketsSold": 120,
+                                      "bookings": 85,
+                                      "revenue": 3060.0
+                                    }
+                                    """)
+                    )
+            )
+    })
+    @GetMapping("/stats")
+    public SalesStats stats() {
+        return salesAggregates.total();
+    }
+}
@@ -0,0 +1,79 @@
+package task.example.demo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import task.example.demo.config.OpenApiConfig;
+import task.example.demo.service.AuthService;
+
+import java.util.Map;
+
+@Tag(name = "Users", description = "Manage the authenticated user's account and tokens")
+@SecurityRequirement(name = OpenApiConfig.BEARER_SCHEME)
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class UserController {
+
+    private final AuthService authService;
+
+    @Operation(
+            summary = "Log out everywhere",
+            description = "Revokes every token issued to the current user so far. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tokens revoked",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"message\":\"Tokens revoked\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Missing/invalid token",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
+                    )
+            )
+    })
+    @PostMapping("/me/logout-all")
+    public ResponseEntity<?> logoutAll(Authentication authentication) {
+        authService.revokeTokens(authentication.getName());
+        return ResponseEntity.ok(Map.of("message", "Tokens revoked"));
+    }
+
+    @Operation(
+            summary = "Delete my account",
+            description = "Deletes the current user; their tokens stop working immediately. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Account deleted",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"message\":\"Deleted\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Missing/invalid token",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid or expired token\"}")
+                    )
+            )
+    })
+    @DeleteMapping("/me")
+    public ResponseEntity<?> deleteMe(Authentication authentication) {
+        authService.deleteAccount(authentication.getName());
+        return ResponseEntity.ok(Map.of("message", "Deleted"));
+    }
+}
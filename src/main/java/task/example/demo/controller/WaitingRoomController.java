@@ -0,0 +1,149 @@
+package task.example.demo.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import task.example.demo.config.OpenApiConfig;
+import task.example.demo.inventory.AvailabilityIndex;
+import task.example.demo.queue.WaitingRoom;
+
+import java.util.Map;
+
+@Tag(name = "Waiting room", description = "Queue buyers in FIFO order for flash-sale events")
+@SecurityRequirement(name = OpenApiConfig.BEARER_SCHEME)
+@RestController
+@RequestMapping("/api/events/{id}")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+    public static final String QUEUE_TOKEN_HEADER = "X-Queue-Token";
+
+    private final WaitingRoom waitingRoom;
+    private final AvailabilityIndex availabilityIndex;
+
+    @Operation(
+            summary = "Open a waiting room",
+            description = "From now on POST /api/book for this event needs an admitted queue token in the "
+                    + QUEUE_TOKEN_HEADER + " header. Carts and holds are refused for the event. Requires an admin's JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Waiting room open"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown event",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Event not found\"}")
+                    )
+            ),
+            @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    })
+    @PostMapping("/waiting-room")
+    public ResponseEntity<?> open(@PathVariable Long id) {
+        if (!availabilityIndex.exists(id)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Event not found"));
+        }
+        waitingRoom.open(id);
+        return ResponseEntity.ok(Map.of("eventId", id, "waitingRoom", true));
+    }
+
+    @Operation(
+            summary = "Close a waiting room",
+            description = "Bookings for the event no longer need a queue token; outstanding tokens become invalid. "
+                    + "Requires an admin's JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Waiting room closed"),
+            @ApiResponse(responseCode = "403", description = "Caller is not an admin")
+    })
+    @DeleteMapping("/waiting-room")
+    public ResponseEntity<?> close(@PathVariable Long id) {
+        waitingRoom.close(id);
+        return ResponseEntity.ok(Map.of("eventId", id, "waitingRoom", false));
+    }
+
+    @Operation(
+            summary = "Join the queue",
+            description = "Returns the caller's place in line and a signed queue token. "
+                    + "Poll GET with the token until admitted is true, then book with it. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Queued",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "eventId": 1,
+                                      "position": 1250,
+                                      "admitted": false,
+                                      "estimatedWaitSeconds": 25,
+                                      "token": "1249.Qm9vay1zaWduYXR1cmU"
+                                    }
+                                    """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "The event has no waiting room",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"No waiting room for this event\"}")
+                    )
+            )
+    })
+    @PostMapping("/queue")
+    public ResponseEntity<?> join(@PathVariable Long id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok(waitingRoom.join(id, authentication.getName()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+            summary = "Queue status",
+            description = "Current position for the queue token in " + QUEUE_TOKEN_HEADER
+                    + ". Answered from memory, safe to poll. Requires JWT Bearer token."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Position returned",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = """
+                                    {
+                                      "eventId": 1,
+                                      "position": 0,
+                                      "admitted": true,
+                                      "estimatedWaitSeconds": 0,
+                                      "token": "1249.Qm9vay1zaWduYXR1cmU"
+                                    }
+                                    """)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Token invalid or no waiting room",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\":\"Invalid queue token\"}")
+                    )
+            )
+    })
+    @GetMapping("/queue")
+    public ResponseEntity<?> status(@PathVariable Long id,
+                                    @RequestHeader(QUEUE_TOKEN_HEADER) String token,
+                                    Authentication authentication) {
+        try {
+            return ResponseEntity.ok(waitingRoom.status(id, authentication.getName(), token));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,4 +1,4 @@
 package task.example.demo.dto;
 
-public record AuthResponse(String token) {
+public record AuthResponse(String token, String refreshToken) {
 }
\ No newline at end of file
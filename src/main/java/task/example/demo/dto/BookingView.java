@@ -0,0 +1,6 @@
+package task.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+public record BookingView(Long id, String username, int quantity, double totalPrice, LocalDateTime bookedAt) {
+}
@@ -0,0 +1,4 @@
+package task.example.demo.dto;
+
+public record CartLine(Long eventId, int quantity) {
+}
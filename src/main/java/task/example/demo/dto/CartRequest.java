@@ -0,0 +1,6 @@
+package task.example.demo.dto;
+
+import java.util.List;
+
+public record CartRequest(String username, List<CartLine> lines) {
+}
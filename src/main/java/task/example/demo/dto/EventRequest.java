@@ -0,0 +1,4 @@
+package task.example.demo.dto;
+
+public record EventRequest(String name, int totalTickets, double price) {
+}
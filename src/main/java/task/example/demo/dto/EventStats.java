@@ -0,0 +1,4 @@
+package task.example.demo.dto;
+
+public record EventStats(Long eventId, long ticketsSold, long bookings, double revenue) {
+}
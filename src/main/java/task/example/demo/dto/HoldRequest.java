@@ -0,0 +1,4 @@
+package task.example.demo.dto;
+
+public record HoldRequest(Long eventId, int quantity) {
+}
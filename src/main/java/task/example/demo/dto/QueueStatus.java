@@ -0,0 +1,4 @@
+package task.example.demo.dto;
+
+public record QueueStatus(Long eventId, long position, boolean admitted, long estimatedWaitSeconds, String token) {
+}
@@ -0,0 +1,4 @@
+package task.example.demo.dto;
+
+public record RefreshRequest(String refreshToken) {
+}
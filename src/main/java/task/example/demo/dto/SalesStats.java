@@ -0,0 +1,4 @@
+package task.example.demo.dto;
+
+public record SalesStats(long events, long ticketsSold, long bookings, double revenue) {
+}
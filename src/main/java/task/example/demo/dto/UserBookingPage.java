@@ -0,0 +1,6 @@
+package task.example.demo.dto;
+
+import java.util.List;
+
+public record UserBookingPage(List<UserBookingView> items, Long nextCursor) {
+}
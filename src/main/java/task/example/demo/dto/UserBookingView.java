@@ -0,0 +1,6 @@
+package task.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+public record UserBookingView(Long id, Long eventId, int quantity, double totalPrice, LocalDateTime bookedAt) {
+}
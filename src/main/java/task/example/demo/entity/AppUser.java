@@ -13,7 +13,8 @@ import lombok.Setter;
 @Table(name= "users")
 public class AppUser {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private  Long id;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -21,4 +22,7 @@ public class AppUser {
 
     @Column(nullable = false)
     private String passwordHash;
+
+    @Column(nullable = false)
+    private int tokenEpoch;
 }
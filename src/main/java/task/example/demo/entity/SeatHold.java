@@ -0,0 +1,39 @@
+package task.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "seat_holds")
+@Data
+@NoArgsConstructor
+public class SeatHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seat_holds_seq")
+    @SequenceGenerator(name = "seat_holds_seq", sequenceName = "seat_holds_seq", allocationSize = 50)
+    private Long id;
+
+    private String username;
+
+    @ManyToOne
+    @JoinColumn(name = "ticket_pool_id")
+    private TicketPool ticketPool;
+
+    private int quantity;
+
+    private double totalPrice;
+
+    private LocalDateTime expiresAt;
+
+    public SeatHold(String username, TicketPool ticketPool, int quantity, LocalDateTime expiresAt) {
+        this.username = username;
+        this.ticketPool = ticketPool;
+        this.quantity = quantity;
+        this.totalPrice = ticketPool.getPrice() * quantity;
+        this.expiresAt = expiresAt;
+    }
+}
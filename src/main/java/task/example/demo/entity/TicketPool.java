@@ -11,7 +11,8 @@ import lombok.NoArgsConstructor;
 public class TicketPool {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ticket_pools_seq")
+    @SequenceGenerator(name = "ticket_pools_seq", sequenceName = "ticket_pools_seq", allocationSize = 50)
     private Long id;
 
     private String eventName;
@@ -0,0 +1,26 @@
+package task.example.demo.event;
+
+/**
+ * Published whenever {@code availableTickets} of a pool may have changed: after every booking
+ * attempt, successful or not, and after a write-behind flush reaches the database.
+ * <p>
+ * When the publisher knows the count right after its change, {@code availableTickets} carries it
+ * and {@code released} tells whether tickets came back (otherwise they were taken); without a
+ * known count it is {@link #UNKNOWN}.
+ */
+public record InventoryChangedEvent(Long ticketPoolId, int availableTickets, boolean released) {
+
+    public static final int UNKNOWN = -1;
+
+    public InventoryChangedEvent(Long ticketPoolId) {
+        this(ticketPoolId, UNKNOWN, false);
+    }
+
+    public static InventoryChangedEvent taken(Long ticketPoolId, int availableTickets) {
+        return new InventoryChangedEvent(ticketPoolId, availableTickets, false);
+    }
+
+    public static InventoryChangedEvent released(Long ticketPoolId, int availableTickets) {
+        return new InventoryChangedEvent(ticketPoolId, availableTickets, true);
+    }
+}
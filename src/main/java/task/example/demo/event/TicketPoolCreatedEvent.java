@@ -0,0 +1,6 @@
+package task.example.demo.event;
+
+import task.example.demo.entity.TicketPool;
+
+public record TicketPoolCreatedEvent(TicketPool pool) {
+}
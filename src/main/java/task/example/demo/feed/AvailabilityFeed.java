@@ -0,0 +1,200 @@
+package task.example.demo.feed;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import task.example.demo.event.InventoryChangedEvent;
+import task.example.demo.inventory.InventoryLedger;
+import task.example.demo.inventory.QuotaLeases;
+import task.example.demo.repository.TicketPoolRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes {@code availableTickets} of an event to Server-Sent Events subscribers. Bookings, holds
+ * and hold expiry report the count they left behind in {@link InventoryChangedEvent}; nothing
+ * polls the database. One publisher thread sends at most one frame per event every
+ * {@code booking.feed.interval-ms}, and only when the count changed.
+ * <p>
+ * Subscribers are asynchronous requests written with non-blocking I/O, so an idle subscriber
+ * holds a socket but no thread, and a slow one is skipped until its socket drains and then gets
+ * only the newest frame. An event's topic lives only while it has subscribers.
+ */
+@Slf4j
+@Component
+public class AvailabilityFeed {
+
+    static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final TicketPoolRepository ticketPoolRepository;
+    private final InventoryLedger inventoryLedger;
+    private final QuotaLeases quotaLeases;
+    private final long heartbeatNanos;
+    private final ScheduledExecutorService publisher;
+    private final ConcurrentHashMap<Long, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    // Touched only by the publisher thread.
+    private long lastHeartbeat = System.nanoTime();
+
+    public AvailabilityFeed(TicketPoolRepository ticketPoolRepository,
+                            InventoryLedger inventoryLedger,
+                            QuotaLeases quotaLeases,
+                            @Value("${booking.feed.interval-ms:250}") long intervalMs,
+                            @Value("${booking.feed.heartbeat-ms:15000}") long heartbeatMs,
+                            MeterRegistry meterRegistry) {
+        this.ticketPoolRepository = ticketPoolRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.quotaLeases = quotaLeases;
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMs);
+        this.publisher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "availability-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::publish, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("booking.feed.subscribers", subscribers, AtomicInteger::get)
+                .description("Open availability streams")
+                .register(meterRegistry);
+    }
+
+    /** Turns the request into a stream of the event's availability; false if the event does not exist. */
+    public boolean subscribe(Long eventId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Integer available = topics.containsKey(eventId) ? null : currentAvailable(eventId);
+        if (available == null && !topics.containsKey(eventId)) return false;
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Accel-Buffering", "no");
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0);
+
+        SseSubscriber subscriber = new SseSubscriber(async, closed -> leave(eventId, closed));
+        Topic watched = join(eventId, subscriber, available);
+        async.addListener(subscriber);
+        subscriber.start(async.getResponse().getOutputStream(), watched.frame());
+        return true;
+    }
+
+    @EventListener
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (event.availableTickets() == InventoryChangedEvent.UNKNOWN) return;
+        Topic topic = topics.get(event.ticketPoolId());
+        if (topic != null) topic.update(event.availableTickets(), event.released());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+        topics.values().forEach(topic -> topic.subscribers.forEach(SseSubscriber::close));
+    }
+
+    // Topics are added and dropped inside compute, so a subscriber never joins a topic that was
+    // just dropped. A topic dropped after the existence check is started again from a fresh count.
+    private Topic join(Long eventId, SseSubscriber subscriber, Integer available) {
+        Integer seed = available;
+        while (true) {
+            Integer count = seed;
+            Topic topic = topics.compute(eventId, (id, current) -> {
+                if (current == null) {
+                    if (count == null) return null;
+                    current = new Topic(id, count);
+                }
+                current.subscribers.add(subscriber);
+                return current;
+            });
+            if (topic != null) {
+                subscribers.incrementAndGet();
+                return topic;
+            }
+            seed = currentAvailable(eventId);
+        }
+    }
+
+    private void leave(Long eventId, SseSubscriber subscriber) {
+        topics.computeIfPresent(eventId, (id, topic) -> {
+            if (topic.subscribers.remove(subscriber)) subscribers.decrementAndGet();
+            return topic.subscribers.isEmpty() ? null : topic;
+        });
+    }
+
+    int topicCount() {
+        return topics.size();
+    }
+
+    private Integer currentAvailable(Long eventId) {
+        if (inventoryLedger.isEnabled()) {
+            int available = inventoryLedger.getAvailable(eventId);
+            if (available >= 0) return available;
+        }
+        return ticketPoolRepository.findById(eventId)
+                .map(pool -> quotaLeases.isEnabled() ? quotaLeases.available(pool) : pool.getAvailableTickets())
+                .orElse(null);
+    }
+
+    private void publish() {
+        try {
+            long now = System.nanoTime();
+            boolean heartbeat = now - lastHeartbeat >= heartbeatNanos;
+            if (heartbeat) lastHeartbeat = now;
+            for (Topic topic : topics.values()) {
+                byte[] frame = topic.takeFrame();
+                if (frame != null) {
+                    topic.subscribers.forEach(subscriber -> subscriber.send(frame));
+                } else if (heartbeat) {
+                    topic.subscribers.forEach(SseSubscriber::heartbeat);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Publishing availability frames failed", e);
+        }
+    }
+
+    private static final class Topic {
+        final Long eventId;
+        final Set<SseSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+        // Guarded by this.
+        private int available;
+        private boolean changed;
+
+        Topic(Long eventId, int available) {
+            this.eventId = eventId;
+            this.available = available;
+        }
+
+        // Bookings report counts out of order, so a count that went down only moves down; a release
+        // is read after it committed and is taken as is.
+        synchronized void update(int count, boolean released) {
+            int next = released ? count : Math.min(available, count);
+            if (next != available) {
+                available = next;
+                changed = true;
+            }
+        }
+
+        synchronized byte[] takeFrame() {
+            if (!changed) return null;
+            changed = false;
+            return frame();
+        }
+
+        synchronized byte[] frame() {
+            return ("event: availability\ndata: {\"eventId\":" + eventId + ",\"availableTickets\":" + available + "}\n\n")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package task.example.demo.feed;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * One open stream. Holds at most one unsent frame: a newer frame replaces it, so a subscriber
+ * whose socket is full catches up with the latest state instead of a backlog.
+ */
+final class SseSubscriber implements WriteListener, AsyncListener {
+
+    private final AsyncContext async;
+    private final Consumer<SseSubscriber> onClose;
+
+    // Guarded by this.
+    private ServletOutputStream out;
+    private byte[] pending;
+    private boolean unflushed;
+    private boolean closed;
+
+    SseSubscriber(AsyncContext async, Consumer<SseSubscriber> onClose) {
+        this.async = async;
+        this.onClose = onClose;
+    }
+
+    synchronized void start(ServletOutputStream out, byte[] firstFrame) {
+        pending = firstFrame;
+        out.setWriteListener(this);
+        this.out = out;
+        drain();
+    }
+
+    synchronized void send(byte[] frame) {
+        if (closed) return;
+        pending = frame;
+        drain();
+    }
+
+    synchronized void heartbeat() {
+        if (closed || pending != null) return;
+        pending = AvailabilityFeed.HEARTBEAT;
+        drain();
+    }
+
+    @Override
+    public synchronized void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            pending = null;
+        }
+        onClose.accept(this);
+        try {
+            async.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container.
+        }
+    }
+
+    // Writes only while the container says the socket can take more; otherwise onWritePossible
+    // calls back once it drained.
+    private void drain() {
+        if (out == null || closed) return;
+        try {
+            while (out.isReady()) {
+                if (pending != null) {
+                    byte[] frame = pending;
+                    pending = null;
+                    out.write(frame);
+                    unflushed = true;
+                } else if (unflushed) {
+                    unflushed = false;
+                    out.flush();
+                } else {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            close();
+        }
+    }
+}
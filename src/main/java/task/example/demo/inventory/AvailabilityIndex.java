@@ -0,0 +1,88 @@
+package task.example.demo.inventory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import task.example.demo.event.TicketPoolCreatedEvent;
+import task.example.demo.repository.TicketPoolRepository;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Known events and which of them are sold out, so hopeless bookings are rejected before the
+ * processing delay and without SQL. An event id is looked up in the DB once and then remembered;
+ * ids that do not exist are remembered too, for {@code booking.availability.missing-ttl-ms}, so
+ * repeated requests for a bogus id cost no query either.
+ * <p>
+ * Each event has a state word: a release counter in the high bits and a sold-out bit. Reservations
+ * take a {@link #stamp} before touching inventory and pass it to {@link #soldOut} when they see zero
+ * tickets left. {@link #released} bumps the counter, so a sold-out observation that raced with a
+ * release fails its CAS and can never hide tickets that came back. Anything that returns tickets to
+ * a pool (hold expiry, cancellations, restocks) must call {@link #released} after committing.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private static final long SOLD_OUT = 1;
+    private static final long RELEASE = 2;
+
+    private final TicketPoolRepository ticketPoolRepository;
+
+    private final ConcurrentHashMap<Long, AtomicLong> states = new ConcurrentHashMap<>();
+    private final Cache<Long, Boolean> missing;
+
+    public AvailabilityIndex(TicketPoolRepository ticketPoolRepository,
+                             @Value("${booking.availability.missing-max-entries:100000}") long missingMaxEntries,
+                             @Value("${booking.availability.missing-ttl-ms:5000}") long missingTtlMs) {
+        this.ticketPoolRepository = ticketPoolRepository;
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(missingMaxEntries)
+                .expireAfterWrite(Duration.ofMillis(missingTtlMs))
+                .build();
+    }
+
+    public boolean exists(Long ticketPoolId) {
+        if (states.containsKey(ticketPoolId)) return true;
+        if (missing.getIfPresent(ticketPoolId) != null) return false;
+        if (!ticketPoolRepository.existsById(ticketPoolId)) {
+            missing.put(ticketPoolId, Boolean.TRUE);
+            return false;
+        }
+        states.putIfAbsent(ticketPoolId, new AtomicLong());
+        return true;
+    }
+
+    public boolean isSoldOut(Long ticketPoolId) {
+        AtomicLong state = states.get(ticketPoolId);
+        return state != null && (state.get() & SOLD_OUT) != 0;
+    }
+
+    public long stamp(Long ticketPoolId) {
+        AtomicLong state = states.get(ticketPoolId);
+        return state == null ? -1 : state.get();
+    }
+
+    public void soldOut(Long ticketPoolId, long stamp) {
+        AtomicLong state = states.get(ticketPoolId);
+        if (state != null && stamp >= 0) {
+            state.compareAndSet(stamp & ~SOLD_OUT, stamp | SOLD_OUT);
+        }
+    }
+
+    public void released(Long ticketPoolId) {
+        AtomicLong state = states.get(ticketPoolId);
+        if (state != null) {
+            state.updateAndGet(current -> (current & ~SOLD_OUT) + RELEASE);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTicketPoolCreated(TicketPoolCreatedEvent event) {
+        missing.invalidate(event.pool().getId());
+        states.putIfAbsent(event.pool().getId(), new AtomicLong(event.pool().getAvailableTickets() == 0 ? SOLD_OUT : 0));
+    }
+}
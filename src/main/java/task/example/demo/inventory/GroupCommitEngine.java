@@ -0,0 +1,185 @@
+package task.example.demo.inventory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.repository.BatchInserter;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.service.BookingRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent bookings for the same pool into one transaction when
+ * {@code booking.group-commit.enabled=true}. A batch is committed after {@code window-ms}
+ * or as soon as {@code max-batch} requests are queued: the pool row is locked once,
+ * tickets are allocated in arrival order, and all accepted bookings are inserted together.
+ */
+@Slf4j
+@Component
+public class GroupCommitEngine {
+
+    private final TicketPoolRepository ticketPoolRepository;
+    private final BatchInserter batchInserter;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxBatch;
+    private final ScheduledExecutorService executor;
+    private final Timer commitTimer;
+    private final DistributionSummary batchSize;
+
+    private final ConcurrentHashMap<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    public GroupCommitEngine(TicketPoolRepository ticketPoolRepository,
+                             BatchInserter batchInserter,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${booking.group-commit.enabled:false}") boolean enabled,
+                             @Value("${booking.group-commit.window-ms:5}") long windowMs,
+                             @Value("${booking.group-commit.max-batch:256}") int maxBatch,
+                             @Value("${booking.group-commit.workers:4}") int workers,
+                             MeterRegistry meterRegistry) {
+        this.ticketPoolRepository = ticketPoolRepository;
+        this.batchInserter = batchInserter;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.maxBatch = maxBatch;
+        this.executor = enabled ? Executors.newScheduledThreadPool(workers) : null;
+        this.commitTimer = Timer.builder("booking.group-commit.commit")
+                .description("Transaction that allocates and inserts one batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("booking.group-commit.batch.size")
+                .description("Bookings committed per group-commit transaction")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Booking book(Long ticketPoolId, String username, int quantity) {
+        try {
+            return submit(ticketPoolId, username, quantity).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Booking> submit(Long ticketPoolId, String username, int quantity) {
+        Request request = new Request(username, quantity, new CompletableFuture<>());
+        Lane lane = lanes.computeIfAbsent(ticketPoolId, Lane::new);
+        lane.queue.add(request);
+
+        if (lane.size.incrementAndGet() == maxBatch) {
+            executor.execute(() -> drain(lane));
+        } else if (lane.scheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                lane.scheduled.set(false);
+                drain(lane);
+            }, windowMs, TimeUnit.MILLISECONDS);
+        }
+        return request.result;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor == null) return;
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        lanes.values().forEach(this::drain);
+    }
+
+    private void drain(Lane lane) {
+        synchronized (lane) {
+            while (!lane.queue.isEmpty()) {
+                List<Request> batch = new ArrayList<>();
+                Request next;
+                while (batch.size() < maxBatch && (next = lane.queue.poll()) != null) {
+                    batch.add(next);
+                }
+                lane.size.addAndGet(-batch.size());
+                commit(lane.ticketPoolId, batch);
+            }
+        }
+    }
+
+    private void commit(Long ticketPoolId, List<Request> batch) {
+        List<Booking> allocated;
+        batchSize.record(batch.size());
+        try {
+            allocated = commitTimer.record(() -> transactionTemplate.execute(status -> allocate(ticketPoolId, batch)));
+        } catch (RuntimeException e) {
+            log.error("Group commit of {} bookings for pool {} failed", batch.size(), ticketPoolId, e);
+            batch.forEach(request -> request.result.completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Request request = batch.get(i);
+            if (allocated == null) {
+                request.result.completeExceptionally(BookingRejectedException.NOT_FOUND);
+            } else if (allocated.get(i) == null) {
+                request.result.completeExceptionally(BookingRejectedException.SOLD_OUT);
+            } else {
+                request.result.complete(allocated.get(i));
+            }
+        }
+    }
+
+    private List<Booking> allocate(Long ticketPoolId, List<Request> batch) {
+        TicketPool pool = ticketPoolRepository.findByIdForUpdate(ticketPoolId).orElse(null);
+        if (pool == null) return null;
+
+        List<Booking> allocated = new ArrayList<>(batch.size());
+        List<Booking> accepted = new ArrayList<>(batch.size());
+        int remaining = pool.getAvailableTickets();
+        for (Request request : batch) {
+            Booking booking = null;
+            if (request.quantity <= remaining) {
+                remaining -= request.quantity;
+                booking = new Booking(request.username, pool, request.quantity);
+                accepted.add(booking);
+            }
+            allocated.add(booking);
+        }
+
+        pool.setAvailableTickets(remaining);
+        batchInserter.insertAll(accepted);
+        return allocated;
+    }
+
+    private record Request(String username, int quantity, CompletableFuture<Booking> result) {
+    }
+
+    private static final class Lane {
+        private final Long ticketPoolId;
+        private final ConcurrentLinkedQueue<Request> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(Long ticketPoolId) {
+            this.ticketPoolId = ticketPoolId;
+        }
+    }
+}
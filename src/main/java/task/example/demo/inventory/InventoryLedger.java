@@ -0,0 +1,287 @@
+package task.example.demo.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.event.InventoryChangedEvent;
+import task.example.demo.repository.BookingIds;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.service.BookingRejectedException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory source of truth for {@code availableTickets} when {@code booking.ledger.enabled=true}.
+ * Accept/reject is decided by a CAS on a per-pool counter; the matching DB decrement and
+ * {@link Booking} insert are written behind in batches by {@link #flush()}.
+ * Assumes this node is the only writer of {@code ticket_pools.available_tickets}.
+ * <p>
+ * Each booking gets its id from {@link BookingIds} when its tickets are taken, so callers and the
+ * journal see the id the row is later inserted with; callers get a copy of the queued booking.
+ * A pool whose flush fails is retried on its own so it cannot hold back the others, and after
+ * {@code booking.ledger.max-failed-flushes} consecutive failures it stops taking bookings until a
+ * flush succeeds again.
+ */
+@Slf4j
+@Component
+public class InventoryLedger {
+
+    private final TicketPoolRepository ticketPoolRepository;
+    private final BookingIds bookingIds;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AvailabilityIndex availabilityIndex;
+    private final boolean enabled;
+    private final int maxFailedFlushes;
+    private final Timer flushTimer;
+    private final Counter flushFailures;
+
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Booking> pending = new ConcurrentLinkedQueue<>();
+
+    public InventoryLedger(TicketPoolRepository ticketPoolRepository,
+                           BookingIds bookingIds,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           AvailabilityIndex availabilityIndex,
+                           @Value("${booking.ledger.enabled:false}") boolean enabled,
+                           @Value("${booking.ledger.max-failed-flushes:20}") int maxFailedFlushes,
+                           MeterRegistry meterRegistry) {
+        this.ticketPoolRepository = ticketPoolRepository;
+        this.bookingIds = bookingIds;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.availabilityIndex = availabilityIndex;
+        this.enabled = enabled;
+        this.maxFailedFlushes = maxFailedFlushes;
+        this.flushTimer = Timer.builder("booking.ledger.flush")
+                .description("Write-behind flush of ledger bookings")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("booking.ledger.flush.failures")
+                .description("Per-pool write-behind flushes that failed and were requeued")
+                .register(meterRegistry);
+        Gauge.builder("booking.ledger.failing.pools", slots,
+                        all -> all.values().stream().filter(slot -> slot.failures().get() > 0).count())
+                .description("Pools whose pending bookings could not be flushed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Booking book(Long ticketPoolId, String username, int quantity) {
+        Slot slot = slot(ticketPoolId);
+        if (slot == null) {
+            throw BookingRejectedException.NOT_FOUND;
+        }
+        requireFlushing(slot);
+        if (!slot.tryTake(quantity)) {
+            throw BookingRejectedException.SOLD_OUT;
+        }
+
+        Booking booking = booking(username, slot.pool(), quantity);
+        pending.add(booking);
+        return view(booking, slot);
+    }
+
+    public List<Booking> bookAll(String username, SortedMap<Long, Integer> quantities) {
+        List<Booking> bookings = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Slot slot = slot(line.getKey());
+            try {
+                if (slot == null) throw BookingRejectedException.notFound(line.getKey());
+                requireFlushing(slot);
+                if (!slot.tryTake(line.getValue())) {
+                    throw BookingRejectedException.soldOut(line.getKey());
+                }
+            } catch (RuntimeException e) {
+                release(bookings);
+                throw e;
+            }
+            bookings.add(booking(username, slot.pool(), line.getValue()));
+        }
+
+        pending.addAll(bookings);
+        return bookings.stream().map(booking -> view(booking, slots.get(booking.getTicketPool().getId()))).toList();
+    }
+
+    /** Pools with taken bookings not yet in the bookings table, including pools whose flush keeps failing. */
+    public Set<Long> unflushedPools() {
+        Set<Long> pools = new HashSet<>();
+        slots.forEach((id, slot) -> {
+            if (slot.failures().get() > 0) pools.add(id);
+        });
+        pending.forEach(booking -> pools.add(booking.getTicketPool().getId()));
+        return pools;
+    }
+
+    public int getAvailable(Long ticketPoolId) {
+        Slot slot = slots.get(ticketPoolId);
+        return slot == null ? -1 : slot.available().get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!enabled) return;
+        for (TicketPool pool : ticketPoolRepository.findAll()) {
+            slots.putIfAbsent(pool.getId(), new Slot(pool, new AtomicInteger(pool.getAvailableTickets()), new AtomicInteger()));
+        }
+        log.info("Inventory ledger loaded {} ticket pools", slots.size());
+    }
+
+    @Scheduled(fixedDelayString = "${booking.ledger.flush-interval-ms:50}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+
+        List<Booking> batch = new ArrayList<>();
+        Booking next;
+        while ((next = pending.poll()) != null) {
+            batch.add(next);
+        }
+
+        Map<Long, List<Booking>> byPool = new LinkedHashMap<>();
+        for (Booking booking : batch) {
+            byPool.computeIfAbsent(booking.getTicketPool().getId(), id -> new ArrayList<>()).add(booking);
+        }
+
+        try {
+            write(byPool);
+            byPool.keySet().forEach(this::flushed);
+        } catch (RuntimeException e) {
+            log.warn("Ledger flush of {} bookings failed, retrying pool by pool: {}", batch.size(), e.getMessage());
+            // Retry pool by pool so one failing pool does not hold back the rest of the batch.
+            byPool.forEach((poolId, bookings) -> {
+                try {
+                    write(Map.of(poolId, bookings));
+                    flushed(poolId);
+                } catch (RuntimeException poolError) {
+                    pending.addAll(bookings);
+                    flushFailures.increment();
+                    int failures = slots.get(poolId).failures().incrementAndGet();
+                    log.error("Ledger flush of {} bookings for pool {} failed {} time(s), will retry",
+                            bookings.size(), poolId, failures, poolError);
+                }
+            });
+        }
+    }
+
+    private void write(Map<Long, List<Booking>> byPool) {
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            byPool.forEach((poolId, bookings) -> {
+                int quantity = bookings.stream().mapToInt(Booking::getQuantity).sum();
+                if (ticketPoolRepository.tryDecrementTickets(poolId, quantity) == 0) {
+                    throw new IllegalStateException("Ledger and DB diverged for pool " + poolId);
+                }
+            });
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO bookings (id, username, ticket_pool_id, quantity, total_price, booked_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    byPool.values().stream().flatMap(List::stream).toList(), 1000, (ps, booking) -> {
+                        ps.setLong(1, booking.getId());
+                        ps.setString(2, booking.getUsername());
+                        ps.setLong(3, booking.getTicketPool().getId());
+                        ps.setInt(4, booking.getQuantity());
+                        ps.setDouble(5, booking.getTotalPrice());
+                        ps.setObject(6, booking.getBookedAt());
+                    });
+        }));
+    }
+
+    private void flushed(Long poolId) {
+        slots.get(poolId).failures().set(0);
+        eventPublisher.publishEvent(new InventoryChangedEvent(poolId));
+    }
+
+    @PreDestroy
+    public synchronized void drain() {
+        while (!pending.isEmpty()) {
+            int before = pending.size();
+            flush();
+            if (pending.size() >= before) {
+                log.error("Ledger drain stalled with {} unflushed bookings", pending.size());
+                return;
+            }
+        }
+    }
+
+    private void requireFlushing(Slot slot) {
+        if (slot.failures().get() >= maxFailedFlushes) {
+            throw new RuntimeException("Bookings for this event are paused, try again shortly");
+        }
+    }
+
+    private void release(List<Booking> taken) {
+        taken.forEach(booking -> {
+            slots.get(booking.getTicketPool().getId()).available().addAndGet(booking.getQuantity());
+            availabilityIndex.released(booking.getTicketPool().getId());
+        });
+    }
+
+    private Booking booking(String username, TicketPool pool, int quantity) {
+        Booking booking = new Booking(username, pool, quantity);
+        booking.setId(bookingIds.next());
+        return booking;
+    }
+
+    // The queued booking is written by the flush thread; callers get their own copy with a fresh pool snapshot.
+    private static Booking view(Booking booking, Slot slot) {
+        TicketPool pool = slot.pool();
+        TicketPool snapshot = new TicketPool(pool.getEventName(), pool.getTotalTickets(), pool.getPrice());
+        snapshot.setId(pool.getId());
+        snapshot.setAvailableTickets(slot.available().get());
+        Booking view = new Booking(booking.getUsername(), snapshot, booking.getQuantity());
+        view.setId(booking.getId());
+        view.setBookedAt(booking.getBookedAt());
+        return view;
+    }
+
+    // Loads outside the map: computeIfAbsent would hold a bin lock across the query.
+    private Slot slot(Long ticketPoolId) {
+        Slot slot = slots.get(ticketPoolId);
+        if (slot != null) return slot;
+        Slot loaded = ticketPoolRepository.findById(ticketPoolId)
+                .map(pool -> new Slot(pool, new AtomicInteger(pool.getAvailableTickets()), new AtomicInteger()))
+                .orElse(null);
+        if (loaded == null) return null;
+        Slot existing = slots.putIfAbsent(ticketPoolId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private record Slot(TicketPool pool, AtomicInteger available, AtomicInteger failures) {
+
+        boolean tryTake(int quantity) {
+            int current;
+            do {
+                current = available.get();
+                if (current < quantity) return false;
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+    }
+}
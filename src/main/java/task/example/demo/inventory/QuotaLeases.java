@@ -0,0 +1,257 @@
+package task.example.demo.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.event.InventoryChangedEvent;
+import task.example.demo.repository.BatchInserter;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.service.BookingRejectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sells tickets from blocks leased off {@code ticket_pools.available_tickets} when
+ * {@code booking.lease.enabled=true}, so nodes sharing one database lock a pool row once per block
+ * instead of once per booking. In this mode the column counts tickets not leased to any node, and a
+ * node never sells more than it has leased, so the nodes together cannot overbook.
+ * <p>
+ * A node's block for an event doubles when the previous one sold within {@code target-ms} and halves
+ * when it took more than twice that; near the end of a pool it takes at most half of what is left.
+ * Unsold tickets go back after {@code idle-timeout-ms} without a sale and on shutdown. A node that
+ * crashes keeps its unsold tickets out of the pool: they are under-sold, never sold twice.
+ */
+@Slf4j
+@Component
+public class QuotaLeases {
+
+    private final TicketPoolRepository ticketPoolRepository;
+    private final BookingRepository bookingRepository;
+    private final BatchInserter batchInserter;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int minBlock;
+    private final int maxBlock;
+    private final long targetNanos;
+    private final long idleTimeoutNanos;
+    private final long emptyRecheckNanos;
+    private final Timer extend;
+    private final Counter leased;
+    private final Counter returned;
+
+    private final ConcurrentHashMap<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    public QuotaLeases(TicketPoolRepository ticketPoolRepository,
+                       BookingRepository bookingRepository,
+                       BatchInserter batchInserter,
+                       TransactionTemplate transactionTemplate,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${booking.lease.enabled:false}") boolean enabled,
+                       @Value("${booking.lease.min-block:10}") int minBlock,
+                       @Value("${booking.lease.max-block:1000}") int maxBlock,
+                       @Value("${booking.lease.target-ms:1000}") long targetMs,
+                       @Value("${booking.lease.idle-timeout-ms:5000}") long idleTimeoutMs,
+                       @Value("${booking.lease.empty-recheck-ms:500}") long emptyRecheckMs,
+                       MeterRegistry meterRegistry) {
+        this.ticketPoolRepository = ticketPoolRepository;
+        this.bookingRepository = bookingRepository;
+        this.batchInserter = batchInserter;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.minBlock = minBlock;
+        this.maxBlock = maxBlock;
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMs);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        this.emptyRecheckNanos = TimeUnit.MILLISECONDS.toNanos(emptyRecheckMs);
+        this.extend = Timer.builder("booking.lease.extend")
+                .description("Locked update of a pool row to lease one block")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.leased = Counter.builder("booking.lease.leased")
+                .description("Tickets leased from ticket_pools by this node")
+                .register(meterRegistry);
+        this.returned = Counter.builder("booking.lease.returned")
+                .description("Unsold leased tickets given back to ticket_pools")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Booking book(Long ticketPoolId, String username, int quantity) {
+        Lease lease = lease(ticketPoolId);
+        if (lease == null) throw BookingRejectedException.NOT_FOUND;
+        if (!lease.take(quantity)) throw BookingRejectedException.SOLD_OUT;
+
+        Booking booking = new Booking(username, lease.pool, quantity);
+        try {
+            return transactionTemplate.execute(status -> bookingRepository.save(booking));
+        } catch (RuntimeException e) {
+            lease.remaining.addAndGet(quantity);
+            throw e;
+        }
+    }
+
+    public List<Booking> bookAll(String username, SortedMap<Long, Integer> quantities) {
+        List<Booking> bookings = new ArrayList<>(quantities.size());
+        try {
+            for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                Lease lease = lease(line.getKey());
+                if (lease == null) throw BookingRejectedException.notFound(line.getKey());
+                if (!lease.take(line.getValue())) {
+                    throw BookingRejectedException.soldOut(line.getKey());
+                }
+                bookings.add(new Booking(username, lease.pool, line.getValue()));
+            }
+            return transactionTemplate.execute(status -> batchInserter.insertAll(bookings));
+        } catch (RuntimeException e) {
+            bookings.forEach(taken -> leases.get(taken.getTicketPool().getId()).remaining.addAndGet(taken.getQuantity()));
+            throw e;
+        }
+    }
+
+    /** Tickets this node could still sell: its own lease plus what was unleased when it last looked. */
+    public int getAvailable(Long ticketPoolId) {
+        Lease lease = leases.get(ticketPoolId);
+        return lease == null ? -1 : lease.remaining.get() + lease.unleased;
+    }
+
+    /** Tickets buyers can still get from this node: the pool row's unleased count plus its own unsold lease. */
+    public int available(TicketPool pool) {
+        Lease lease = leases.get(pool.getId());
+        return pool.getAvailableTickets() + (lease == null ? 0 : lease.remaining.get());
+    }
+
+    @Scheduled(fixedDelayString = "${booking.lease.idle-timeout-ms:5000}")
+    public void returnIdle() {
+        long now = System.nanoTime();
+        for (Lease lease : leases.values()) {
+            if (now - lease.lastSale > idleTimeoutNanos) {
+                lease.giveBack();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void returnAll() {
+        leases.values().forEach(Lease::giveBack);
+    }
+
+    // Loads outside the map: computeIfAbsent would hold a bin lock across the query.
+    private Lease lease(Long ticketPoolId) {
+        Lease lease = leases.get(ticketPoolId);
+        if (lease != null) return lease;
+        Lease loaded = ticketPoolRepository.findById(ticketPoolId).map(Lease::new).orElse(null);
+        if (loaded == null) return null;
+        Lease existing = leases.putIfAbsent(ticketPoolId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private final class Lease {
+
+        private final TicketPool pool;
+        private final AtomicInteger remaining = new AtomicInteger();
+        private volatile long lastSale = System.nanoTime();
+        private volatile int unleased;
+
+        // Guarded by this.
+        private int block = minBlock;
+        private long leasedAt;
+        private long emptyUntil;
+
+        Lease(TicketPool pool) {
+            this.pool = pool;
+            this.unleased = pool.getAvailableTickets();
+        }
+
+        boolean take(int quantity) {
+            if (!tryTake(quantity)) {
+                synchronized (this) {
+                    while (!tryTake(quantity)) {
+                        if (!extend(quantity - remaining.get())) return false;
+                    }
+                }
+            }
+            lastSale = System.nanoTime();
+            return true;
+        }
+
+        private boolean tryTake(int quantity) {
+            int current;
+            do {
+                current = remaining.get();
+                if (current < quantity) return false;
+            } while (!remaining.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        // One locked read-modify-write of the pool row for a whole block.
+        private boolean extend(int needed) {
+            long now = System.nanoTime();
+            if (now < emptyUntil) return false;
+            if (leasedAt != 0) {
+                long took = now - leasedAt;
+                if (took < targetNanos) block = Math.min(maxBlock, block * 2);
+                else if (took > 2 * targetNanos) block = Math.max(minBlock, block / 2);
+            }
+
+            Integer granted = extend.record(() -> transactionTemplate.execute(status -> {
+                TicketPool row = ticketPoolRepository.findByIdForUpdate(pool.getId())
+                        .orElseThrow(() -> BookingRejectedException.NOT_FOUND);
+                int available = row.getAvailableTickets();
+                int grant = Math.min(available, Math.max(needed, Math.min(block, available / 2)));
+                if (grant < needed) {
+                    unleased = available;
+                    return 0;
+                }
+                row.setAvailableTickets(available - grant);
+                unleased = available - grant;
+                return grant;
+            }));
+            if (granted == null || granted == 0) {
+                if (unleased == 0) emptyUntil = now + emptyRecheckNanos;
+                return false;
+            }
+            leased.increment(granted);
+            leasedAt = now;
+            remaining.addAndGet(granted);
+            return true;
+        }
+
+        synchronized void giveBack() {
+            int unsold = remaining.getAndSet(0);
+            if (unsold == 0) return;
+            try {
+                transactionTemplate.executeWithoutResult(status -> ticketPoolRepository.releaseTickets(pool.getId(), unsold));
+            } catch (RuntimeException e) {
+                log.warn("Could not return {} leased tickets of pool {}, keeping them", unsold, pool.getId(), e);
+                remaining.addAndGet(unsold);
+                return;
+            }
+            returned.increment(unsold);
+            unleased += unsold;
+            leasedAt = 0;
+            emptyUntil = 0;
+            eventPublisher.publishEvent(new InventoryChangedEvent(pool.getId()));
+        }
+    }
+}
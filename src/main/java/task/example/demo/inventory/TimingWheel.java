@@ -0,0 +1,139 @@
+package task.example.demo.inventory;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timing wheel: {@code wheelSize} buckets of {@code tickMs} each, turned by one thread.
+ * Scheduling and cancelling are O(1), and a tick only visits the timeouts hashed to its bucket,
+ * so expiring n timeouts costs O(n) no matter how many are outstanding. Timeouts further out than
+ * one revolution wait in their bucket for the remaining rounds. Everything that expires during a
+ * tick is handed to {@code onExpired} as one list, on the wheel thread. Time comes from
+ * {@code nanoClock}, {@link System#nanoTime()} unless a test supplies one it can move by hand.
+ */
+@Slf4j
+public class TimingWheel<T> {
+
+    private final long tickNanos;
+    private final List<Timeout<T>>[] buckets;
+    private final int mask;
+    private final Consumer<List<T>> onExpired;
+    private final ConcurrentLinkedQueue<Timeout<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+
+    // Owned by the wheel thread.
+    private long tick;
+
+    public TimingWheel(String name, long tickMs, int wheelSize, Consumer<List<T>> onExpired) {
+        this(name, tickMs, wheelSize, System::nanoTime, onExpired);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(String name, long tickMs, int wheelSize, LongSupplier nanoClock, Consumer<List<T>> onExpired) {
+        if (Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("wheelSize must be a power of two");
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.mask = wheelSize - 1;
+        this.onExpired = onExpired;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        ticker.scheduleAtFixedRate(this::advance, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Timeout<T> schedule(T value, long delayMs) {
+        Timeout<T> timeout = new Timeout<>(value, nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(Math.max(delayMs, 0)));
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /** Runs every tick that is due by now on the wheel thread, and returns once they are done. */
+    public void tickNow() throws InterruptedException {
+        try {
+            ticker.submit(this::advance).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Timing wheel tick failed", e.getCause());
+        }
+    }
+
+    public void shutdown() throws InterruptedException {
+        ticker.shutdown();
+        ticker.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void advance() {
+        List<T> expired = new ArrayList<>();
+        long now = nanoClock.getAsLong();
+        // Catches up tick by tick if the thread was delayed, so no bucket is ever skipped.
+        while (now - (startNanos + (tick + 1) * tickNanos) >= 0) {
+            long tickEnd = startNanos + (tick + 1) * tickNanos;
+            place();
+            expire(buckets[(int) (tick & mask)], tickEnd, expired);
+            tick++;
+        }
+        if (expired.isEmpty()) return;
+        try {
+            onExpired.accept(expired);
+        } catch (RuntimeException e) {
+            log.error("Timing wheel callback failed for {} timeouts", expired.size(), e);
+        }
+    }
+
+    private void place() {
+        Timeout<T> timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.cancelled) continue;
+            long ticks = Math.max((timeout.deadline - startNanos) / tickNanos, tick);
+            timeout.rounds = (ticks - tick) / buckets.length;
+            buckets[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void expire(List<Timeout<T>> bucket, long tickEnd, List<T> expired) {
+        int kept = 0;
+        for (Timeout<T> timeout : bucket) {
+            if (timeout.cancelled) continue;
+            if (timeout.rounds <= 0 && timeout.deadline - tickEnd <= 0) {
+                expired.add(timeout.value);
+                continue;
+            }
+            timeout.rounds--;
+            bucket.set(kept++, timeout);
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    public static final class Timeout<T> {
+        private final T value;
+        private final long deadline;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(T value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,646 @@
+package task.example.demo.journal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import task.example.demo.config.SchedulingConfig;
+import task.example.demo.dto.EventStats;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of event creations and bookings, the durable copy of inventory when
+ * {@code booking.journal.enabled=true}. Records are written into memory-mapped segment files of
+ * {@code segment-bytes} each. One flusher thread forces written pages to disk and every append
+ * waits for the force that covers it, so concurrent appends share an fsync (group commit).
+ * <p>
+ * A record is {@code int length, int crc32c, payload}; a zero length marks the end of a segment.
+ * The journal also keeps per-pool totals of what it holds, and every {@code snapshot-interval-ms}
+ * writes them to an {@link InventorySnapshot} once the records they cover are durable.
+ * <p>
+ * On startup the latest snapshot is loaded and only the records after it are scanned; the journal
+ * is cut at the first record whose length or checksum does not hold (a torn write from a crash),
+ * and {@link JournalReplayer} rebuilds inventory from the snapshot and that tail. A record that
+ * passes its checksum was acknowledged, so if it cannot be replayed startup fails instead. All of this runs
+ * before the application starts. Booking rows older than the snapshot are only history, so they
+ * are inserted in the background once the application is up, retried until they are all in; until
+ * then {@link JournalHealthIndicator} keeps the node out of readiness.
+ */
+@Slf4j
+@Component
+public class BookingJournal {
+
+    private static final byte EVENTS = 1;
+    private static final byte BOOKINGS = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".journal";
+    private static final int BACKFILL_BATCH = 10_000;
+    private static final long BACKFILL_RETRY_MS = 5_000;
+
+    private final JournalReplayer replayer;
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentBytes;
+    private final Timer fsyncTimer;
+    private final DistributionSummary fsyncRecords;
+    private final Timer restoreTimer;
+    private final Timer snapshotTimer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+
+    // Guarded by lock. Positions are global: segment index * segment-bytes + offset.
+    private Segment segment;
+    private long appended;
+    private long durable;
+    private int unsynced;
+    // Also read without the lock by requireWritable.
+    private volatile boolean closed;
+    private volatile boolean failed;
+    private Thread flusher;
+    private final Map<Long, PoolTotals> totals = new HashMap<>();
+    private long maxBookingId;
+
+    private volatile long snapshotPosition = -1;
+    // Bookings before this position are restored into the pools but not yet into the bookings table.
+    private long backfillUpTo;
+    private volatile boolean backfilled = true;
+    private volatile boolean stopping;
+
+    public BookingJournal(JournalReplayer replayer,
+                          @Value("${booking.journal.enabled:false}") boolean enabled,
+                          @Value("${booking.journal.dir:data/journal}") Path dir,
+                          @Value("${booking.journal.segment-bytes:67108864}") int segmentBytes,
+                          MeterRegistry meterRegistry) {
+        this.replayer = replayer;
+        this.enabled = enabled;
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.fsyncTimer = Timer.builder("booking.journal.fsync")
+                .description("Force of journal pages to disk")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.fsyncRecords = DistributionSummary.builder("booking.journal.fsync.records")
+                .description("Journal records made durable per fsync")
+                .register(meterRegistry);
+        this.restoreTimer = Timer.builder("booking.journal.restore")
+                .description("Startup restore of inventory from the latest snapshot and the journal after it")
+                .register(meterRegistry);
+        this.snapshotTimer = Timer.builder("booking.journal.snapshot")
+                .description("Writing an inventory snapshot")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Whether every journaled booking is in the bookings table; false while the backfill runs. */
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    /** Returns once the pools are on disk. */
+    public void recordEvents(List<TicketPool> pools) {
+        if (!enabled || pools.isEmpty()) return;
+        ByteBuffer payload = ByteBuffer.allocate(5 + pools.size() * 64);
+        payload.put(EVENTS).putInt(pools.size());
+        for (TicketPool pool : pools) {
+            payload = ensure(payload, 22 + utf8Length(pool.getEventName()));
+            payload.putLong(pool.getId()).putInt(pool.getTotalTickets()).putDouble(pool.getPrice());
+            putString(payload, pool.getEventName());
+        }
+        append(payload.flip(), () -> pools.forEach(pool -> totals.put(pool.getId(),
+                new PoolTotals(pool.getId(), pool.getEventName(), pool.getTotalTickets(), pool.getPrice()))));
+    }
+
+    /** Returns once the bookings are on disk. Several bookings form one record and replay all or nothing. */
+    public void recordBookings(List<Booking> bookings) {
+        if (!enabled || bookings.isEmpty()) return;
+        ByteBuffer payload = ByteBuffer.allocate(5 + bookings.size() * 64);
+        payload.put(BOOKINGS).putInt(bookings.size());
+        for (Booking booking : bookings) {
+            payload = ensure(payload, 42 + utf8Length(booking.getUsername()));
+            payload.putLong(booking.getId() == null ? 0 : booking.getId())
+                    .putLong(booking.getTicketPool().getId())
+                    .putInt(booking.getQuantity())
+                    .putDouble(booking.getTotalPrice())
+                    .putLong(booking.getBookedAt().toEpochSecond(ZoneOffset.UTC))
+                    .putInt(booking.getBookedAt().getNano());
+            putString(payload, booking.getUsername());
+        }
+        append(payload.flip(), () -> {
+            for (Booking booking : bookings) {
+                PoolTotals pool = totals.get(booking.getTicketPool().getId());
+                if (pool != null) pool.book(booking.getQuantity(), booking.getTotalPrice());
+                maxBookingId = nextBookingId(maxBookingId, booking.getId());
+            }
+        });
+    }
+
+    /**
+     * Throws once appends can no longer succeed. Booking paths call it before taking any tickets, so a
+     * failed or closed journal refuses bookings up front instead of after they have committed.
+     */
+    public void requireWritable() {
+        if (enabled && (closed || failed)) {
+            throw new IllegalStateException("Booking journal is unavailable, bookings are paused");
+        }
+    }
+
+    /**
+     * {@link #recordBookings} for bookings that are already committed or queued and will be
+     * acknowledged. Only a journal failing since {@link #requireWritable} can make this fail, and then
+     * the booking stands: the error is logged rather than turned into a failed response.
+     */
+    public void recordTaken(List<Booking> bookings) {
+        try {
+            recordBookings(bookings);
+        } catch (RuntimeException e) {
+            log.error("Journaling {} booking(s) failed after they were taken, they stand without a journal record",
+                    bookings.size(), e);
+        }
+    }
+
+    /** Tickets sold, bookings and revenue per event, as of the last append. */
+    public List<EventStats> sales() {
+        lock.lock();
+        try {
+            return totals.values().stream()
+                    .map(pool -> new EventStats(pool.id, pool.totalTickets - pool.availableTickets, pool.bookings, pool.revenue))
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) return;
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+        List<Path> files = segmentFiles();
+
+        InventorySnapshot.Contents snapshot = InventorySnapshot.latest(dir);
+        long from = 0;
+        if (snapshot != null && matches(snapshot, files)) {
+            from = snapshot.position();
+            maxBookingId = snapshot.maxBookingId();
+            snapshot.pools().forEach(pool -> totals.put(pool.id, pool));
+            snapshotPosition = from;
+        } else if (snapshot != null) {
+            log.warn("Snapshot at {} does not match the journal segments, replaying the whole journal", snapshot.position());
+        }
+
+        List<Booking> bookings = new ArrayList<>();
+        long records = 0;
+        int scanned = 0;
+        for (int i = 0; i < files.size(); i++) {
+            boolean last = i == files.size() - 1;
+            long base = Segment.indexOf(files.get(i)) * segmentBytes;
+            if (!last && base + segmentBytes <= from) continue;
+
+            Segment current = Segment.map(files.get(i), segmentBytes);
+            Scan scan = scan(current.buffer, (int) Math.max(0, from - base), segmentBytes, entry -> restore(entry, bookings));
+            records += scan.records();
+            scanned++;
+            if (scan.torn() && !last) {
+                throw new IllegalStateException("Journal segment " + files.get(i) + " is corrupt at offset "
+                        + scan.end() + " and is followed by newer segments");
+            }
+            // Pages reach the disk in any order, so bytes of unacknowledged records can follow the end.
+            if (last && clearTail(current.buffer, scan.end())) {
+                log.warn("Journal {} ends in a torn write at offset {}, discarded it", files.get(i), scan.end());
+            }
+            if (last) {
+                current.buffer.position(scan.end());
+                segment = current;
+            } else {
+                current.close();
+            }
+        }
+        if (segment == null) {
+            segment = Segment.create(dir, 1, segmentBytes);
+        }
+        appended = durable = segment.base(segmentBytes) + segment.buffer.position();
+
+        if (replayer.restore(totals.values(), bookings, maxBookingId)) {
+            backfillUpTo = from;
+            backfilled = from == 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        restoreTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Journal restored {} events from {} plus {} records ({} bookings) in {} segments in {} ms",
+                totals.size(), from > 0 ? "the snapshot at " + from : "no snapshot", records, bookings.size(), scanned,
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        flusher = new Thread(this::flushLoop, "journal-fsync");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (backfillUpTo == 0) return;
+        Thread backfill = new Thread(this::backfill, "journal-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * Writes the current totals as a snapshot once the records they cover are durable. Skipped when
+     * nothing was appended since the last one.
+     */
+    @Scheduled(fixedDelayString = "${booking.journal.snapshot-interval-ms:60000}",
+            initialDelayString = "${booking.journal.snapshot-interval-ms:60000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public synchronized void snapshot() {
+        if (flusher == null) return;
+        InventorySnapshot.Contents contents;
+        lock.lock();
+        try {
+            if (appended == snapshotPosition) return;
+            List<PoolTotals> pools = new ArrayList<>(totals.size());
+            totals.values().forEach(pool -> pools.add(pool.copy()));
+            contents = new InventorySnapshot.Contents(appended, segmentBytes, maxBookingId, pools);
+            while (durable < contents.position()) {
+                if (failed) return;
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        long start = System.nanoTime();
+        try {
+            Path file = InventorySnapshot.write(dir, contents);
+            snapshotPosition = contents.position();
+            snapshotTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Wrote {} with {} events", file.getFileName(), contents.pools().size());
+        } catch (IOException e) {
+            log.warn("Writing inventory snapshot failed", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (flusher == null) return;
+        stopping = true;
+        lock.lock();
+        try {
+            closed = true;
+            written.signal();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+        segment.buffer.force();
+        segment.close();
+    }
+
+    private void append(ByteBuffer payload, Runnable apply) {
+        int length = payload.remaining();
+        if (HEADER_BYTES + length > segmentBytes - 4) {
+            throw new IllegalArgumentException("Journal record of " + length + " bytes does not fit in a segment");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+
+        lock.lock();
+        try {
+            if (closed || failed) throw new IllegalStateException("Journal is closed");
+            // Keep at least one zero int after the last record so readers see where the segment ends.
+            if (segment.buffer.remaining() < HEADER_BYTES + length + 4) roll();
+            segment.buffer.putInt(length).putInt((int) crc.getValue()).put(payload);
+            long position = segment.base(segmentBytes) + segment.buffer.position();
+            appended = position;
+            unsynced++;
+            apply.run();
+            written.signal();
+            while (durable < position) {
+                if (failed) throw new IllegalStateException("Journal fsync failed");
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() {
+        segment.buffer.force();
+        segment.close();
+        try {
+            segment = Segment.create(dir, segment.index + 1, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Segment target;
+            long position;
+            int records;
+            lock.lock();
+            try {
+                while (appended == durable && !closed) {
+                    written.awaitUninterruptibly();
+                }
+                if (appended == durable) return;
+                target = segment;
+                position = appended;
+                records = unsynced;
+                unsynced = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            // Earlier segments were forced when they were rolled.
+            int upTo = (int) (position - target.base(segmentBytes));
+            long start = System.nanoTime();
+            try {
+                target.buffer.force(target.forced, upTo - target.forced);
+                target.forced = upTo;
+            } catch (UncheckedIOException e) {
+                log.error("Journal fsync failed, no further bookings can be recorded", e);
+                lock.lock();
+                try {
+                    failed = true;
+                    synced.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+            fsyncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            fsyncRecords.record(records);
+
+            lock.lock();
+            try {
+                durable = Math.max(durable, position);
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Replays one record on startup; checks it fully before changing anything.
+    private void restore(Entry entry, List<Booking> bookings) {
+        for (Booking booking : entry.bookings()) {
+            if (!totals.containsKey(booking.getTicketPool().getId())) {
+                throw new IllegalStateException("Booking for unknown event");
+            }
+        }
+        entry.pools().forEach(pool -> totals.put(pool.id, pool));
+        for (Booking booking : entry.bookings()) {
+            totals.get(booking.getTicketPool().getId()).book(booking.getQuantity(), booking.getTotalPrice());
+            assignId(booking);
+            bookings.add(booking);
+        }
+    }
+
+    private void assignId(Booking booking) {
+        maxBookingId = nextBookingId(maxBookingId, booking.getId());
+        if (booking.getId() == null) booking.setId(maxBookingId);
+    }
+
+    // Bookings journaled without an id are numbered after the highest id seen so far, the same way
+    // at runtime, on restore and on backfill.
+    private static long nextBookingId(long max, Long id) {
+        return id == null ? max + 1 : Math.max(max, id);
+    }
+
+    // Rows are merged by id, so an attempt that stopped halfway is simply run again.
+    private void backfill() {
+        while (!stopping) {
+            try {
+                backfillOnce();
+                backfilled = true;
+                return;
+            } catch (IOException | RuntimeException e) {
+                if (stopping) break;
+                log.error("Journal backfill failed, retrying in {} ms", BACKFILL_RETRY_MS, e);
+                try {
+                    Thread.sleep(BACKFILL_RETRY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+        log.info("Journal backfill stopped by shutdown");
+    }
+
+    private void backfillOnce() throws IOException {
+        long start = System.nanoTime();
+        long upTo = backfillUpTo;
+        long[] max = {0};
+        List<Booking> batch = new ArrayList<>();
+        long count = 0;
+        for (Path file : segmentFiles()) {
+            long base = Segment.indexOf(file) * segmentBytes;
+            if (base >= upTo) break;
+            if (stopping) throw new IllegalStateException("Shutting down");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, segmentBytes);
+                scan(buffer, 0, (int) Math.min(segmentBytes, upTo - base), entry -> {
+                    for (Booking booking : entry.bookings()) {
+                        max[0] = nextBookingId(max[0], booking.getId());
+                        if (booking.getId() == null) booking.setId(max[0]);
+                        batch.add(booking);
+                    }
+                });
+            }
+            if (batch.size() >= BACKFILL_BATCH) {
+                replayer.backfill(batch);
+                count += batch.size();
+                batch.clear();
+            }
+        }
+        replayer.backfill(batch);
+        count += batch.size();
+        log.info("Journal backfilled {} bookings from before the snapshot in {} ms",
+                count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> listing = Files.list(dir)) {
+            return listing.filter(file -> file.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+    }
+
+    private boolean matches(InventorySnapshot.Contents snapshot, List<Path> files) {
+        long index = snapshot.position() / segmentBytes;
+        return snapshot.segmentBytes() == segmentBytes
+                && files.stream().anyMatch(file -> Segment.indexOf(file) == index);
+    }
+
+    private static Scan scan(MappedByteBuffer buffer, int from, int to, Consumer<Entry> sink) {
+        int offset = from;
+        int records = 0;
+        while (offset < to && offset + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length == 0) return new Scan(offset, records, false);
+            if (length < 0 || length > buffer.capacity() - offset - HEADER_BYTES) return new Scan(offset, records, true);
+
+            ByteBuffer payload = buffer.slice(offset + HEADER_BYTES, length);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) return new Scan(offset, records, true);
+
+            try {
+                sink.accept(read(payload));
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Journal record at offset " + offset + " is intact but cannot be replayed", e);
+            }
+            offset += HEADER_BYTES + length;
+            records++;
+        }
+        return new Scan(offset, records, false);
+    }
+
+    private static boolean clearTail(MappedByteBuffer buffer, int from) {
+        boolean dirty = false;
+        for (int offset = from; offset < buffer.capacity(); offset++) {
+            if (buffer.get(offset) != 0) {
+                buffer.put(offset, (byte) 0);
+                dirty = true;
+            }
+        }
+        if (dirty) buffer.force();
+        return dirty;
+    }
+
+    private static Entry read(ByteBuffer payload) {
+        byte type = payload.get();
+        int count = payload.getInt();
+        if (type == EVENTS) {
+            List<PoolTotals> pools = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = payload.getLong();
+                int total = payload.getInt();
+                double price = payload.getDouble();
+                pools.add(new PoolTotals(id, getString(payload), total, price));
+            }
+            return new Entry(pools, List.of());
+        } else if (type == BOOKINGS) {
+            List<Booking> bookings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Booking booking = new Booking();
+                long id = payload.getLong();
+                booking.setId(id == 0 ? null : id);
+                TicketPool pool = new TicketPool();
+                pool.setId(payload.getLong());
+                booking.setTicketPool(pool);
+                booking.setQuantity(payload.getInt());
+                booking.setTotalPrice(payload.getDouble());
+                booking.setBookedAt(LocalDateTime.ofEpochSecond(payload.getLong(), payload.getInt(), ZoneOffset.UTC));
+                booking.setUsername(getString(payload));
+                bookings.add(booking);
+            }
+            return new Entry(List.of(), bookings);
+        }
+        throw new IllegalStateException("Unknown journal record type " + type);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) return buffer;
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        return larger.put(buffer.flip());
+    }
+
+    private static int utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Scan(int end, int records, boolean torn) {
+    }
+
+    // Bookings refer to their pool by id only.
+    private record Entry(List<PoolTotals> pools, List<Booking> bookings) {
+    }
+
+    private static final class Segment {
+        final long index;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // Touched only by the flusher.
+        int forced;
+
+        private Segment(long index, FileChannel channel, MappedByteBuffer buffer) {
+            this.index = index;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path dir, long index, int size) throws IOException {
+            return map(dir.resolve(String.format("%016d", index) + SUFFIX), size);
+        }
+
+        static Segment map(Path file, int size) throws IOException {
+            long index = indexOf(file);
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static long indexOf(Path file) {
+            String name = file.getFileName().toString();
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        }
+
+        long base(int segmentBytes) {
+            return index * segmentBytes;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Closing journal segment {} failed", index, e);
+            }
+        }
+    }
+}
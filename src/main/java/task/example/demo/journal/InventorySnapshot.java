@@ -0,0 +1,126 @@
+package task.example.demo.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Point-in-time copy of every pool's inventory, taken at a journal position. The file is
+ * {@code magic, version, segment-bytes, position, max booking id, pool count}, one fixed record
+ * plus the name per pool, and a CRC32C of everything before it. It is written to a temporary
+ * file, forced and renamed, so a crash leaves either the old snapshot or the new one.
+ */
+@Slf4j
+final class InventorySnapshot {
+
+    private static final int MAGIC = 0x494E5653; // "INVS"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int KEEP = 2;
+
+    record Contents(long position, int segmentBytes, long maxBookingId, List<PoolTotals> pools) {
+    }
+
+    private InventorySnapshot() {
+    }
+
+    static Path write(Path dir, Contents contents) throws IOException {
+        Path target = dir.resolve(PREFIX + String.format("%020d", contents.position()) + SUFFIX);
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(contents.segmentBytes());
+            out.writeLong(contents.position());
+            out.writeLong(contents.maxBookingId());
+            out.writeInt(contents.pools().size());
+            for (PoolTotals pool : contents.pools()) {
+                out.writeLong(pool.id);
+                out.writeInt(pool.totalTickets);
+                out.writeInt(pool.availableTickets);
+                out.writeDouble(pool.price);
+                out.writeLong(pool.bookings);
+                out.writeDouble(pool.revenue);
+                out.writeUTF(pool.eventName == null ? "" : pool.eventName);
+            }
+            out.flush();
+            file.write(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> snapshots = list(dir);
+        for (Path old : snapshots.subList(Math.min(KEEP, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(old);
+        }
+        return target;
+    }
+
+    /** The newest snapshot that reads back intact, or null. */
+    static Contents latest(Path dir) throws IOException {
+        for (Path file : list(dir)) {
+            try {
+                return read(file);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Newest first; names sort by position.
+    private static List<Path> list(Path dir) throws IOException {
+        try (Stream<Path> listing = Files.list(dir)) {
+            return listing.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted(Comparator.reverseOrder()).toList();
+        }
+    }
+
+    private static Contents read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 4) throw new IOException("truncated");
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+            throw new IOException("checksum mismatch");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException("not a version " + VERSION + " snapshot");
+        int segmentBytes = in.readInt();
+        long position = in.readLong();
+        long maxBookingId = in.readLong();
+        int count = in.readInt();
+        List<PoolTotals> pools = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = in.readLong();
+            int total = in.readInt();
+            int available = in.readInt();
+            double price = in.readDouble();
+            long bookings = in.readLong();
+            double revenue = in.readDouble();
+            pools.add(new PoolTotals(id, in.readUTF(), total, price, available, bookings, revenue));
+        }
+        return new Contents(position, segmentBytes, maxBookingId, pools);
+    }
+}
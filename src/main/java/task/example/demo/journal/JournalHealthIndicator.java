@@ -0,0 +1,27 @@
+package task.example.demo.journal;
+
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Out of service until the journal's background backfill has put every booking from before the
+ * snapshot into the bookings table, so readiness waits for users' booking history to be complete.
+ */
+@Component
+public class JournalHealthIndicator implements HealthIndicator {
+
+    private final BookingJournal journal;
+
+    public JournalHealthIndicator(BookingJournal journal) {
+        this.journal = journal;
+    }
+
+    @Override
+    public Health health() {
+        if (!journal.isEnabled()) return Health.up().withDetail("enabled", false).build();
+        return journal.isBackfilled()
+                ? Health.up().build()
+                : Health.outOfService().withDetail("backfill", "in progress").build();
+    }
+}
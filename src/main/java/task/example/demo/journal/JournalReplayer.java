@@ -0,0 +1,84 @@
+package task.example.demo.journal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.entity.Booking;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loads journaled inventory and bookings into an empty database with their original ids, then
+ * moves the id sequences past them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JournalReplayer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Returns false, writing nothing, when the database already holds events. */
+    boolean restore(Collection<PoolTotals> pools, List<Booking> bookings, long maxBookingId) {
+        if (pools.isEmpty()) return false;
+        Boolean restored = transactionTemplate.execute(status -> {
+            Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ticket_pools", Long.class);
+            if (existing != null && existing > 0) {
+                log.warn("Database already holds {} events, not replaying the journal into it", existing);
+                return false;
+            }
+
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO ticket_pools (id, event_name, total_tickets, available_tickets, price) VALUES (?, ?, ?, ?, ?)",
+                    pools, BATCH_SIZE, (ps, pool) -> {
+                        ps.setLong(1, pool.id);
+                        ps.setString(2, pool.eventName);
+                        ps.setInt(3, pool.totalTickets);
+                        ps.setInt(4, pool.availableTickets);
+                        ps.setDouble(5, pool.price);
+                    });
+            insert(bookings);
+
+            long maxPoolId = pools.stream().mapToLong(pool -> pool.id).max().orElse(0);
+            restartSequence("ticket_pools_seq", maxPoolId);
+            restartSequence("bookings_seq", maxBookingId);
+            return true;
+        });
+        return Boolean.TRUE.equals(restored);
+    }
+
+    /** Adds booking rows whose inventory effect is already in the restored pools; rows already there are kept. */
+    void backfill(List<Booking> bookings) {
+        transactionTemplate.executeWithoutResult(status -> write(
+                "MERGE INTO bookings (id, username, ticket_pool_id, quantity, total_price, booked_at) KEY (id) VALUES (?, ?, ?, ?, ?, ?)",
+                bookings));
+    }
+
+    private void insert(List<Booking> bookings) {
+        write("INSERT INTO bookings (id, username, ticket_pool_id, quantity, total_price, booked_at) VALUES (?, ?, ?, ?, ?, ?)",
+                bookings);
+    }
+
+    private void write(String sql, List<Booking> bookings) {
+        jdbcTemplate.batchUpdate(sql, bookings, BATCH_SIZE, (ps, booking) -> {
+            ps.setLong(1, booking.getId());
+            ps.setString(2, booking.getUsername());
+            ps.setLong(3, booking.getTicketPool().getId());
+            ps.setInt(4, booking.getQuantity());
+            ps.setDouble(5, booking.getTotalPrice());
+            ps.setObject(6, booking.getBookedAt());
+        });
+    }
+
+    // Hibernate's pooled optimizer hands out (value - 49 .. value] for each value it reads from a
+    // sequence with allocationSize 50, so the next value must be at least max + 50.
+    private void restartSequence(String sequence, long maxId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 50));
+    }
+}
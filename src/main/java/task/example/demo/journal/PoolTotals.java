@@ -0,0 +1,38 @@
+package task.example.demo.journal;
+
+/** Inventory of one event as the journal sees it; what a snapshot stores per pool. */
+final class PoolTotals {
+
+    final long id;
+    final String eventName;
+    final int totalTickets;
+    final double price;
+    int availableTickets;
+    long bookings;
+    double revenue;
+
+    PoolTotals(long id, String eventName, int totalTickets, double price) {
+        this(id, eventName, totalTickets, price, totalTickets, 0, 0);
+    }
+
+    PoolTotals(long id, String eventName, int totalTickets, double price,
+               int availableTickets, long bookings, double revenue) {
+        this.id = id;
+        this.eventName = eventName;
+        this.totalTickets = totalTickets;
+        this.price = price;
+        this.availableTickets = availableTickets;
+        this.bookings = bookings;
+        this.revenue = revenue;
+    }
+
+    void book(int quantity, double totalPrice) {
+        availableTickets -= quantity;
+        bookings++;
+        revenue += totalPrice;
+    }
+
+    PoolTotals copy() {
+        return new PoolTotals(id, eventName, totalTickets, price, availableTickets, bookings, revenue);
+    }
+}
@@ -0,0 +1,109 @@
+package task.example.demo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import task.example.demo.service.BookingRejectedException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Meters for the booking path. {@code booking.stage} times each step (processing, decrement, insert)
+ * and {@code booking.reserve} the whole reservation by outcome. {@code booking.requests} and the
+ * {@code booking.tickets.available} gauge are tagged by event id, which is capped by {@link task.example.demo.config.MetricsConfig};
+ * requests for events that do not exist are counted under {@code event=none}. Outcomes come from the
+ * {@link BookingRejectedException} reason, never from the message.
+ */
+@Component
+public class BookingMetrics {
+
+    public static final String ACCEPTED = "accepted";
+    public static final String SOLD_OUT = "sold_out";
+    public static final String NOT_FOUND = "not_found";
+    public static final String REJECTED = "rejected";
+
+    private final MeterRegistry registry;
+    private final Timer processing;
+    private final Timer decrement;
+    private final Timer insert;
+    private final Map<String, Timer> reserve;
+    private final ConcurrentHashMap<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> requests = new ConcurrentHashMap<>();
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.processing = stage("processing");
+        this.decrement = stage("decrement");
+        this.insert = stage("insert");
+        this.reserve = Stream.of(ACCEPTED, SOLD_OUT, NOT_FOUND, REJECTED)
+                .collect(Collectors.toMap(Function.identity(), outcome -> Timer.builder("booking.reserve")
+                        .description("Reservation after the processing step, by outcome")
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(registry)));
+    }
+
+    public Timer processing() {
+        return processing;
+    }
+
+    public Timer decrement() {
+        return decrement;
+    }
+
+    public Timer insert() {
+        return insert;
+    }
+
+    public void recordReserve(Long ticketPoolId, long startNanos, Throwable error) {
+        String outcome = outcome(error);
+        reserve.get(outcome).record(Duration.ofNanos(System.nanoTime() - startNanos));
+        countRequest(ticketPoolId, outcome);
+    }
+
+    public void countRequest(Long ticketPoolId, String outcome) {
+        String event = outcome.equals(NOT_FOUND) ? "none" : String.valueOf(ticketPoolId);
+        requests.computeIfAbsent(event + '|' + outcome, key -> Counter.builder("booking.requests")
+                        .description("Booking requests by event and outcome")
+                        .tag("event", event)
+                        .tag("outcome", outcome)
+                        .register(registry))
+                .increment();
+    }
+
+    public void recordAvailable(Long ticketPoolId, int availableTickets) {
+        available.computeIfAbsent(ticketPoolId, id -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder("booking.tickets.available", value, AtomicInteger::get)
+                    .description("Available tickets of pools that have seen bookings")
+                    .tag("event", String.valueOf(id))
+                    .register(registry);
+            return value;
+        }).set(availableTickets);
+    }
+
+    public static String outcome(Throwable error) {
+        if (error == null) return ACCEPTED;
+        if (!(error instanceof BookingRejectedException rejected)) return REJECTED;
+        return switch (rejected.getReason()) {
+            case SOLD_OUT -> SOLD_OUT;
+            case NOT_FOUND -> NOT_FOUND;
+        };
+    }
+
+    private Timer stage(String stage) {
+        return Timer.builder("booking.stage")
+                .description("Time spent in one step of the booking path")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
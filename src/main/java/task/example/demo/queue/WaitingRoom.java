@@ -0,0 +1,254 @@
+package task.example.demo.queue;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import task.example.demo.dto.QueueStatus;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FIFO waiting rooms for flash sales. A room is two counters: joining takes the next sequence
+ * number, admitting moves the admitted horizon forward, so both are O(1). The sequence number
+ * travels in an HMAC-signed token bound to the event, the room and the username; it books once,
+ * and only after the horizon has passed it. Used tokens are a watermark plus a bitmap above it, and
+ * a token must be used before {@code admission-window} more buyers are admitted behind it. A buyer
+ * holds one place at a time: joining again while the place is held returns the same one. Places
+ * are dropped when used or swept once expired, so per-room memory stays bounded by the buyers
+ * waiting plus the window, however many pass through.
+ * <p>
+ * Every tick admits {@code rate * tick} more buyers. The rate adapts AIMD-style to the latency of
+ * bookings made through the room: it grows by {@code rate-step} per tick while latency stays under
+ * {@code target-latency-ms} and buyers are waiting, and is cut by {@code backoff} when it does not.
+ */
+@Component
+public class WaitingRoom {
+
+    private final ConcurrentHashMap<Long, Room> rooms = new ConcurrentHashMap<>();
+    private final ThreadLocal<Mac> hmac;
+    private final long tickMs;
+    private final double initialRate;
+    private final double minRate;
+    private final double maxRate;
+    private final double rateStep;
+    private final double backoff;
+    private final long targetLatencyNanos;
+    private final long admissionWindow;
+
+    public WaitingRoom(@Value("${jwt.secret}") String secret,
+                       @Value("${booking.waiting-room.tick-ms:100}") long tickMs,
+                       @Value("${booking.waiting-room.initial-rate:50}") double initialRate,
+                       @Value("${booking.waiting-room.min-rate:5}") double minRate,
+                       @Value("${booking.waiting-room.max-rate:2000}") double maxRate,
+                       @Value("${booking.waiting-room.rate-step:1}") double rateStep,
+                       @Value("${booking.waiting-room.backoff:0.8}") double backoff,
+                       @Value("${booking.waiting-room.target-latency-ms:500}") long targetLatencyMs,
+                       @Value("${booking.waiting-room.admission-window:100000}") long admissionWindow,
+                       MeterRegistry meterRegistry) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.hmac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        this.tickMs = tickMs;
+        this.initialRate = initialRate;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.rateStep = rateStep;
+        this.backoff = backoff;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.admissionWindow = admissionWindow;
+        Gauge.builder("booking.waiting-room.waiting", rooms,
+                        r -> r.values().stream().mapToLong(Room::waiting).sum())
+                .description("Buyers queued and not yet admitted, over all waiting rooms")
+                .register(meterRegistry);
+    }
+
+    public void open(Long eventId) {
+        rooms.putIfAbsent(eventId, new Room(ThreadLocalRandom.current().nextLong(), initialRate));
+    }
+
+    public void close(Long eventId) {
+        rooms.remove(eventId);
+    }
+
+    public QueueStatus join(Long eventId, String username) {
+        Room room = room(eventId);
+        long sequence = room.places.compute(username, (name, place) ->
+                place != null && place >= room.admitted - admissionWindow ? place : room.issued.getAndIncrement());
+        String token = sequence + "." + sign(eventId, room.id, sequence, username);
+        return status(eventId, room, sequence, token);
+    }
+
+    public QueueStatus status(Long eventId, String username, String token) {
+        Room room = room(eventId);
+        return status(eventId, room, verify(eventId, room, username, token), token);
+    }
+
+    /**
+     * Lets a booking through if the event has no waiting room, or if {@code token} has been admitted
+     * and not used yet. Returns whether the booking goes through a room.
+     */
+    public boolean admit(Long eventId, String username, String token) {
+        Room room = rooms.get(eventId);
+        if (room == null) return false;
+        if (token == null) throw new RuntimeException("Queue token required for this event");
+        long sequence = verify(eventId, room, username, token);
+        long admitted = room.admitted;
+        if (sequence >= admitted) throw new RuntimeException("Not admitted yet");
+        long expiredBelow = admitted - admissionWindow;
+        if (sequence < expiredBelow) throw new RuntimeException("Queue token expired");
+        if (!room.used.markUsed(sequence, expiredBelow)) throw new RuntimeException("Queue token already used");
+        room.places.remove(username, sequence);
+        return true;
+    }
+
+    public void requireNoRoom(Long eventId) {
+        if (eventId != null && rooms.containsKey(eventId)) {
+            throw new RuntimeException("Event " + eventId + " has a waiting room; book it with a queue token");
+        }
+    }
+
+    public void recordBooking(Long eventId, long latencyNanos) {
+        Room room = rooms.get(eventId);
+        if (room == null) return;
+        room.latencyNanos.add(latencyNanos);
+        room.completed.increment();
+    }
+
+    @Scheduled(fixedRateString = "${booking.waiting-room.tick-ms:100}")
+    public void tick() {
+        for (Room room : rooms.values()) {
+            adapt(room);
+            room.credit += room.rate * tickMs / 1000.0;
+            long batch = (long) room.credit;
+            long admitted = Math.min(room.admitted + batch, room.issued.get());
+            room.credit = admitted == room.issued.get() ? 0 : room.credit - batch;
+            room.admitted = admitted;
+            sweep(room);
+        }
+    }
+
+    // Once per window of admissions, so the scan costs O(1) per admitted buyer.
+    private void sweep(Room room) {
+        long expiredBelow = room.admitted - admissionWindow;
+        if (expiredBelow - room.sweptBelow < admissionWindow) return;
+        room.places.values().removeIf(place -> place < expiredBelow);
+        room.sweptBelow = expiredBelow;
+    }
+
+    private void adapt(Room room) {
+        long completed = room.completed.sumThenReset();
+        long latency = room.latencyNanos.sumThenReset();
+        if (completed == 0) return;
+        if (latency / completed > targetLatencyNanos) {
+            room.rate = Math.max(minRate, room.rate * backoff);
+        } else if (room.waiting() > 0) {
+            room.rate = Math.min(maxRate, room.rate + rateStep);
+        }
+    }
+
+    private Room room(Long eventId) {
+        Room room = rooms.get(eventId);
+        if (room == null) throw new RuntimeException("No waiting room for this event");
+        return room;
+    }
+
+    private long verify(Long eventId, Room room, String username, String token) {
+        int dot = token.indexOf('.');
+        if (dot > 0) {
+            try {
+                long sequence = Long.parseLong(token.substring(0, dot));
+                byte[] expected = sign(eventId, room.id, sequence, username).getBytes(StandardCharsets.US_ASCII);
+                if (MessageDigest.isEqual(expected, token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII))) {
+                    return sequence;
+                }
+            } catch (NumberFormatException ignored) {
+                // falls through to the rejection below
+            }
+        }
+        throw new RuntimeException("Invalid queue token");
+    }
+
+    private String sign(Long eventId, long roomId, long sequence, String username) {
+        byte[] mac = hmac.get().doFinal(("queue|" + eventId + "|" + roomId + "|" + sequence + "|" + username)
+                .getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac);
+    }
+
+    private static QueueStatus status(Long eventId, Room room, long sequence, String token) {
+        long position = Math.max(0, sequence - room.admitted + 1);
+        long waitSeconds = (long) Math.ceil(position / room.rate);
+        return new QueueStatus(eventId, position, position == 0, waitSeconds, token);
+    }
+
+    private static final class Room {
+        final long id;
+        final AtomicLong issued = new AtomicLong();
+        final UsedTokens used = new UsedTokens();
+        // Username to the place it holds, until the token is used or expires.
+        final ConcurrentHashMap<String, Long> places = new ConcurrentHashMap<>();
+        final LongAdder latencyNanos = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        // Written only by the tick.
+        volatile long admitted;
+        volatile double rate;
+        double credit;
+        long sweptBelow;
+
+        Room(long id, double rate) {
+            this.id = id;
+            this.rate = rate;
+        }
+
+        long waiting() {
+            return issued.get() - admitted;
+        }
+    }
+
+    /**
+     * Every sequence below {@code base} is used or expired; bit {@code i} marks {@code base + i} as used.
+     * The base moves up over the run of used tokens at the bottom, and past tokens that expired unused.
+     */
+    private static final class UsedTokens {
+        private static final int COMPACT_AT = 1024;
+
+        private long base;
+        private BitSet bits = new BitSet();
+
+        synchronized boolean markUsed(long sequence, long expiredBelow) {
+            if (expiredBelow > base) advance(expiredBelow - base);
+            if (sequence < base) return false;
+            int index = (int) (sequence - base);
+            if (bits.get(index)) return false;
+            bits.set(index);
+            // Shifting copies the bitmap, so wait for a long used run before paying for it.
+            int usedRun = bits.nextClearBit(0);
+            if (usedRun >= COMPACT_AT) advance(usedRun);
+            return true;
+        }
+
+        private void advance(long by) {
+            bits = by >= bits.length() ? new BitSet() : bits.get((int) by, bits.length());
+            base += by;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package task.example.demo.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decides per connection whether a read may go to the replica. Only read-only transactions are
+ * candidates, and only while the replica is at most {@code booking.replica.max-lag-ms} behind. A user
+ * whose own booking is newer than what the replica has applied reads from the primary until it
+ * catches up, so nobody misses a booking, hold, event or account change they just made.
+ */
+@Component
+public class ReadRouting {
+
+    private final boolean enabled;
+    private final long maxLagMs;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    // Primary time up to which the replica is known to hold every committed write.
+    private volatile long replicatedUpTo;
+
+    // Past max-lag a write is either replicated or the replica is too far behind to be used at all.
+    private final Cache<String, Long> lastWrites;
+    private final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    public ReadRouting(@Value("${booking.replica.enabled:false}") boolean enabled,
+                       @Value("${booking.replica.max-lag-ms:2000}") long maxLagMs,
+                       @Value("${booking.replica.max-tracked-users:100000}") long maxTrackedUsers,
+                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxLagMs = maxLagMs;
+        this.lastWrites = Caffeine.newBuilder()
+                .maximumSize(maxTrackedUsers)
+                .expireAfterWrite(Duration.ofMillis(maxLagMs))
+                .build();
+        this.primaryReads = readCounter(meterRegistry, "primary");
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        Gauge.builder("booking.replica.lag", this, routing -> routing.lagMs())
+                .description("How far the replica is behind the primary, in milliseconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks the user as having written. Inside a transaction the time is taken once it commits: a
+     * time taken earlier could be replicated past before the write itself is.
+     */
+    public void recordWrite(String username) {
+        if (!enabled || username == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWrites.put(username, System.currentTimeMillis());
+                }
+            });
+        } else {
+            lastWrites.put(username, System.currentTimeMillis());
+        }
+    }
+
+    /** {@link #recordWrite(String)} for the authenticated user of the current request, if any. */
+    public void recordWrite() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) recordWrite(authentication.getName());
+    }
+
+    /**
+     * Runs the reads on the primary. For results that are cached as current as of now, which a
+     * replica read could predate by up to max-lag.
+     */
+    public <T> T onPrimary(Supplier<T> reads) {
+        if (!enabled || primaryOnly.get() != null) return reads.get();
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            primaryOnly.remove();
+        }
+    }
+
+    void replicatedUpTo(long primaryMillis) {
+        replicatedUpTo = primaryMillis;
+    }
+
+    long lagMs() {
+        return replicatedUpTo == 0 ? -1 : System.currentTimeMillis() - replicatedUpTo;
+    }
+
+    boolean useReplica() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) return false;
+        boolean replica = primaryOnly.get() == null && replicaIsCurrentFor(SecurityContextHolder.getContext().getAuthentication());
+        (replica ? replicaReads : primaryReads).increment();
+        return replica;
+    }
+
+    private boolean replicaIsCurrentFor(Authentication authentication) {
+        long upTo = replicatedUpTo;
+        if (System.currentTimeMillis() - upTo > maxLagMs) return false;
+        if (authentication == null) return true;
+        Long wroteAt = lastWrites.getIfPresent(authentication.getName());
+        return wroteAt == null || wroteAt < upTo;
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("booking.replica.reads")
+                .description("Read-only transactions by the database they were routed to")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
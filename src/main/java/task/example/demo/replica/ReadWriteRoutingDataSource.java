@@ -0,0 +1,31 @@
+package task.example.demo.replica;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends each connection to the primary or the replica as {@link ReadRouting} decides. Wrap it in a
+ * {@link LazyConnectionDataSourceProxy}: the transaction manager opens the connection before the
+ * transaction is marked read-only, the proxy defers that until the first statement.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ReadRouting routing;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadRouting routing) {
+        this.routing = routing;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return routing.useReplica() ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,56 @@
+package task.example.demo.replica;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Measures replica lag with a heartbeat row: the primary's copy is set to the current time every
+ * {@code booking.replica.heartbeat-ms}, and the value the replica holds is the time up to which it
+ * has every write. Works with any replication that copies the {@code replica_heartbeat} table.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "booking.replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReadRouting routing;
+
+    public ReplicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                             @Qualifier("replicaDataSource") DataSource replica,
+                             ReadRouting routing) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.routing = routing;
+    }
+
+    @PostConstruct
+    public void createHeartbeat() {
+        primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+    }
+
+    @Scheduled(fixedDelayString = "${booking.replica.heartbeat-ms:250}")
+    public void beat() {
+        long now = System.currentTimeMillis();
+        if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+            primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+        }
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            if (!beats.isEmpty()) routing.replicatedUpTo(beats.get(0));
+        } catch (DataAccessException e) {
+            // Not replicated yet or unreachable: the lag keeps growing and reads stay on the primary.
+            log.debug("Replica heartbeat unavailable: {}", e.getMessage());
+        }
+    }
+}
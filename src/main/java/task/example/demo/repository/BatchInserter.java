@@ -0,0 +1,40 @@
+package task.example.demo.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persists new entities in chunks of {@code hibernate.jdbc.batch_size}, flushing and clearing the
+ * persistence context after each chunk so Hibernate sends one JDBC batch per chunk and memory stays
+ * flat for large imports. Entities must use sequence ids; IDENTITY would force a round trip per row.
+ */
+@Component
+public class BatchInserter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int batchSize;
+
+    public BatchInserter(@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public <T> List<T> insertAll(List<T> entities) {
+        for (int i = 0; i < entities.size(); i++) {
+            entityManager.persist(entities.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        return entities;
+    }
+}
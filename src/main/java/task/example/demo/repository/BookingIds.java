@@ -0,0 +1,33 @@
+package task.example.demo.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Booking ids handed out before the row is written, for bookings that are persisted later in
+ * batches. Draws from {@code bookings_seq} in the same blocks as Hibernate's pooled optimizer, so
+ * these ids never collide with those of bookings saved through JPA.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIds {
+
+    // Must match the allocationSize of the bookings_seq generator on Booking.
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long next = 1;
+    private long last = 0;
+
+    public synchronized long next() {
+        if (next > last) {
+            Long value = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR bookings_seq", Long.class);
+            // Each value read from the sequence stands for (value - 49 .. value].
+            last = value;
+            next = Math.max(1, value - ALLOCATION_SIZE + 1);
+        }
+        return next++;
+    }
+}
@@ -1,12 +1,61 @@
 package task.example.demo.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import task.example.demo.dto.BookingView;
+import task.example.demo.dto.EventStats;
+import task.example.demo.dto.UserBookingView;
 import task.example.demo.entity.Booking;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByTicketPoolId(Long ticketPoolId);
+
+    @Query("""
+        select new task.example.demo.dto.BookingView(b.id, b.username, b.quantity, b.totalPrice, b.bookedAt)
+          from Booking b
+         where b.ticketPool.id = :ticketPoolId
+           and b.id > :afterId
+         order by b.id
+    """)
+    List<BookingView> findPageByTicketPoolId(@Param("ticketPoolId") Long ticketPoolId,
+                                             @Param("afterId") long afterId,
+                                             Limit limit);
+
+    // Newest first; reads only the (username, id) index range and the matching rows.
+    @Query("""
+        select new task.example.demo.dto.UserBookingView(b.id, b.ticketPool.id, b.quantity, b.totalPrice, b.bookedAt)
+          from Booking b
+         where b.username = :username
+           and b.id < :beforeId
+         order by b.id desc
+    """)
+    List<UserBookingView> findPageByUsername(@Param("username") String username,
+                                             @Param("beforeId") long beforeId,
+                                             Limit limit);
+
+    @Query("""
+        select new task.example.demo.dto.EventStats(b.ticketPool.id, sum(b.quantity), count(b), sum(b.totalPrice))
+          from Booking b
+         group by b.ticketPool.id
+    """)
+    List<EventStats> aggregateByTicketPool();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        select new task.example.demo.dto.BookingView(b.id, b.username, b.quantity, b.totalPrice, b.bookedAt)
+          from Booking b
+         where b.ticketPool.id = :ticketPoolId
+         order by b.id
+    """)
+    Stream<BookingView> streamByTicketPoolId(@Param("ticketPoolId") Long ticketPoolId);
 }
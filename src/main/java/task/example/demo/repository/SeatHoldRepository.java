@@ -0,0 +1,32 @@
+package task.example.demo.repository;
+
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import task.example.demo.dto.HoldView;
+import task.example.demo.entity.SeatHold;
+
+import java.util.stream.Stream;
+
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, Long> {
+
+    // Confirm and expiry both claim a hold through this delete; only the one that gets 1 back may act on it.
+    @Modifying
+    @Transactional
+    @Query("delete from SeatHold h where h.id = :id")
+    int claim(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        select new task.example.demo.dto.HoldView(h.id, h.ticketPool.id, h.quantity, h.totalPrice, h.expiresAt)
+          from SeatHold h
+    """)
+    Stream<HoldView> streamAll();
+}
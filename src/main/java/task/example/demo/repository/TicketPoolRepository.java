@@ -1,13 +1,17 @@
 package task.example.demo.repository;
 
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import task.example.demo.entity.TicketPool;
 
+import java.util.Optional;
+
 @Repository
 public interface TicketPoolRepository extends JpaRepository<TicketPool, Long> {
     @Modifying
@@ -19,4 +23,20 @@ public interface TicketPoolRepository extends JpaRepository<TicketPool, Long> {
            and p.availableTickets >= :qty
     """)
     int tryDecrementTickets(@Param("id") Long id, @Param("qty") int qty);
+
+    @Modifying
+    @Transactional
+    @Query("""
+        update TicketPool p
+           set p.availableTickets = p.availableTickets + :qty
+         where p.id = :id
+    """)
+    int releaseTickets(@Param("id") Long id, @Param("qty") int qty);
+
+    @Query("select p.availableTickets from TicketPool p where p.id = :id")
+    int findAvailableTickets(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from TicketPool p where p.id = :id")
+    Optional<TicketPool> findByIdForUpdate(@Param("id") Long id);
 }
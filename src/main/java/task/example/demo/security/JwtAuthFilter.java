@@ -1,27 +1,48 @@
 package task.example.demo.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import task.example.demo.repository.UserRepository;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    public static final String ADMIN_ROLE = "ADMIN";
+    private static final List<GrantedAuthority> ADMIN = List.of(new SimpleGrantedAuthority("ROLE_" + ADMIN_ROLE));
+
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final Set<String> admins;
+    private final Timer authenticated;
+    private final Timer rejected;
+
+    public JwtAuthFilter(JwtService jwtService,
+                         PrincipalCache principalCache,
+                         @Value("${security.admins:}") Set<String> admins,
+                         MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.principalCache = principalCache;
+        this.admins = admins;
+        this.authenticated = authTimer(meterRegistry, "authenticated");
+        this.rejected = authTimer(meterRegistry, "rejected");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -46,10 +67,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
+        long start = System.nanoTime();
         String header = request.getHeader(HttpHeaders.AUTHORIZATION);
 
 
         if (header == null || !header.startsWith("Bearer ")) {
+            rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             unauthorized(response, "Missing token");
             return;
         }
@@ -57,23 +80,35 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String token = header.substring(7);
 
         try {
-            String username = jwtService.extractUsername(token);
+            VerifiedToken verified = jwtService.verify(token);
 
-            userRepository.findByUsername(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            if (!principalCache.isActive(verified)) {
+                throw new RuntimeException("User not found or token revoked");
+            }
 
-            var auth = new UsernamePasswordAuthenticationToken(username, null, List.of());
+            var auth = new UsernamePasswordAuthenticationToken(verified.username(), null,
+                    admins.contains(verified.username()) ? ADMIN : List.of());
             auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(auth);
+            authenticated.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
             filterChain.doFilter(request, response);
 
         } catch (Exception ex) {
             SecurityContextHolder.clearContext();
+            rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             unauthorized(response, "Invalid or expired token");
         }
     }
 
+    private static Timer authTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.authentication")
+                .description("Token verification and principal check in JwtAuthFilter")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     private void unauthorized(HttpServletResponse response, String message) throws IOException {
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         response.setContentType("application/json");
@@ -1,54 +1,153 @@
 package task.example.demo.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
-    private final Key key;
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static final String TYPE = "typ";
+    private static final String REFRESH = "refresh";
+
+    private final SecretKey key;
     private final long expirationMs;
+    private final long refreshExpirationMs;
+    private final JwtParser parser;
+
+    // Keyed by SHA-256 of the compact token; entries expire together with the token itself.
+    private final Cache<ByteBuffer, VerifiedToken> verified;
 
     public JwtService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration-ms}") long expirationMs
+            @Value("${jwt.expiration-ms}") long expirationMs,
+            @Value("${jwt.refresh-expiration-ms:1209600000}") long refreshExpirationMs,
+            @Value("${jwt.cache.max-entries:100000}") long cacheMaxEntries,
+            MeterRegistry meterRegistry
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfter(new Expiry<ByteBuffer, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer digest, VerifiedToken token, long currentTime) {
+                        long remainingMs = token.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified-tokens");
+    }
+
+    public String generateToken(Long userId, String username, int tokenEpoch) {
+        return build(userId, username, tokenEpoch, expirationMs).compact();
+    }
+
+    /**
+     * A long-lived token accepted only by {@link #verifyRefresh}. It carries the same token epoch as
+     * access tokens, so revoking a user's tokens revokes their refresh tokens too.
+     */
+    public String generateRefreshToken(Long userId, String username, int tokenEpoch) {
+        return build(userId, username, tokenEpoch, refreshExpirationMs).claim(TYPE, REFRESH).compact();
     }
 
-    public String generateToken(Long userId, String username) {
+    private JwtBuilder build(Long userId, String username, int tokenEpoch, long validityMs) {
         Date now = new Date();
-        Date exp = new Date(now.getTime() + expirationMs);
+        Date exp = new Date(now.getTime() + validityMs);
 
         return Jwts.builder()
                 .subject(username)
                 .claim("uid", userId)
+                .claim("ep", tokenEpoch)
                 .issuedAt(now)
                 .expiration(exp)
-                .signWith(key)
-                .compact();
+                .signWith(key);
     }
 
     public String extractUsername(String token) {
-        return parseClaims(token).getPayload().getSubject();
+        return verify(token).username();
     }
 
     public boolean isValid(String token) {
-        parseClaims(token); // throws if invalid/expired
+        verify(token); // throws if invalid/expired
         return true;
     }
 
+    /**
+     * Returns the verified subject of {@code token}, checking the signature only on a cache miss.
+     */
+    public VerifiedToken verify(String token) {
+        ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        VerifiedToken cached = verified.getIfPresent(digest);
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            return cached;
+        }
+
+        Claims claims = parseClaims(token).getPayload();
+        if (REFRESH.equals(claims.get(TYPE))) {
+            throw new UnsupportedJwtException("Refresh token used as access token");
+        }
+        VerifiedToken fresh = toVerified(claims);
+        verified.put(digest, fresh);
+        return fresh;
+    }
+
+    /** Checks the signature and expiry of a refresh token; not cached, refreshes are rare. */
+    public VerifiedToken verifyRefresh(String token) {
+        Claims claims = parseClaims(token).getPayload();
+        if (!REFRESH.equals(claims.get(TYPE))) {
+            throw new UnsupportedJwtException("Not a refresh token");
+        }
+        return toVerified(claims);
+    }
+
+    private static VerifiedToken toVerified(Claims claims) {
+        Integer epoch = claims.get("ep", Integer.class);
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("uid", Long.class),
+                epoch == null ? 0 : epoch,
+                claims.getExpiration().getTime()
+        );
+    }
+
     private Jws<Claims> parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith((javax.crypto.SecretKey) key)
-                .build()
-                .parseSignedClaims(token);
+        return parser.parseSignedClaims(token);
     }
 }
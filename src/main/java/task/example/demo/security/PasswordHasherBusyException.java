@@ -0,0 +1,15 @@
+package task.example.demo.security;
+
+/**
+ * Thrown when the password-hashing queue is full. Shared and stackless: during a login storm it is
+ * the common outcome.
+ */
+public class PasswordHasherBusyException extends RuntimeException {
+
+    public static final PasswordHasherBusyException INSTANCE =
+            new PasswordHasherBusyException("Too many logins in progress, try again shortly");
+
+    private PasswordHasherBusyException(String message) {
+        super(message, null, false, false);
+    }
+}
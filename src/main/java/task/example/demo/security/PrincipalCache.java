@@ -0,0 +1,68 @@
+package task.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Active users by id, so {@link JwtAuthFilter} can authorize a verified token without a query.
+ * A token is accepted only while its {@code ep} claim matches the user's current token epoch;
+ * bumping the epoch (or deleting the user) through {@link #revoke}/{@link #remove} rejects
+ * every older token on this node immediately. Other nodes pick it up within the TTL.
+ * <p>
+ * Loads are read-only transactions, so they may be served by a read replica. A user the replica
+ * does not have yet, typically one who just registered, is looked up again on the primary.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final ActiveUser DELETED = new ActiveUser(null, -1);
+
+    private final LoadingCache<Long, ActiveUser> users;
+
+    public PrincipalCache(UserRepository userRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${security.principal-cache.ttl-ms:300000}") long ttlMs,
+                          @Value("${security.principal-cache.max-entries:100000}") long maxEntries,
+                          MeterRegistry meterRegistry) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build(userId -> Optional.ofNullable(readOnly.execute(status -> userRepository.findById(userId).orElse(null)))
+                        .or(() -> userRepository.findById(userId))
+                        .map(user -> new ActiveUser(user.getUsername(), user.getTokenEpoch()))
+                        .orElse(DELETED));
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "security.principals");
+    }
+
+    public boolean isActive(VerifiedToken token) {
+        if (token.userId() == null) return false;
+        ActiveUser user = users.get(token.userId());
+        return user != DELETED
+                && user.username().equals(token.username())
+                && user.tokenEpoch() == token.epoch();
+    }
+
+    public void revoke(Long userId, String username, int newEpoch) {
+        users.put(userId, new ActiveUser(username, newEpoch));
+    }
+
+    public void remove(Long userId) {
+        users.put(userId, DELETED);
+    }
+
+    private record ActiveUser(String username, int tokenEpoch) {
+    }
+}
@@ -0,0 +1,205 @@
+package task.example.demo.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests over their route's limit with 429 and {@code Retry-After}, before the
+ * controller, the booking delay or any query runs. Sits right after {@link JwtAuthFilter} so
+ * per-user limits can use the authenticated name. Per-event limits need the body, which is buffered
+ * only up to {@link #MAX_BODY_BYTES}; larger bodies on those routes are refused with 413.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<LimitedRoute> routes;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           ObjectMapper objectMapper,
+                           RateLimitProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.enabled();
+        this.routes = properties.routes().entrySet().stream()
+                .map(entry -> new LimitedRoute(entry.getKey(), entry.getValue(),
+                        Counter.builder("security.rate-limit.rejected")
+                                .description("Requests rejected with 429")
+                                .tag("route", entry.getKey())
+                                .register(meterRegistry)))
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest current = request;
+        for (LimitedRoute route : routes) {
+            if (!route.matches(request)) continue;
+
+            if (route.limit().key() == RateLimitProperties.Key.EVENT && !(current instanceof CachedBodyRequest)) {
+                byte[] body = readBody(request);
+                if (body == null) {
+                    payloadTooLarge(response);
+                    return;
+                }
+                current = new CachedBodyRequest(request, body);
+            }
+            List<String> keys = switch (route.limit().key()) {
+                case USER -> List.of(username(request));
+                case CLIENT -> List.of(request.getRemoteAddr());
+                case EVENT -> eventIds((CachedBodyRequest) current);
+            };
+            // No usable key (e.g. malformed body): the controller rejects the request anyway.
+            for (String key : keys) {
+                long waitNanos = rateLimiter.tryAcquire(route.name(), route.limit(), key);
+                if (waitNanos > 0) {
+                    route.rejected().increment();
+                    tooManyRequests(response, waitNanos);
+                    return;
+                }
+            }
+        }
+        filterChain.doFilter(current, response);
+    }
+
+    private static String username(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                ? authentication.getName()
+                : request.getRemoteAddr();
+    }
+
+    // A single booking or hold names eventId; a cart names one per line.
+    private List<String> eventIds(CachedBodyRequest request) {
+        try {
+            JsonNode body = objectMapper.readTree(request.body);
+            List<String> ids = new ArrayList<>();
+            addEventId(body, ids);
+            body.path("lines").forEach(line -> addEventId(line, ids));
+            return ids.stream().distinct().toList();
+        } catch (JacksonException e) {
+            return List.of();
+        }
+    }
+
+    private static void addEventId(JsonNode node, List<String> ids) {
+        JsonNode eventId = node.path("eventId");
+        if (eventId.isIntegralNumber()) ids.add(String.valueOf(eventId.longValue()));
+    }
+
+    private static byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > MAX_BODY_BYTES) return null;
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+
+    private static void payloadTooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Request body too large\"}");
+    }
+
+    private void tooManyRequests(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too many requests\"}");
+    }
+
+    private record LimitedRoute(String name, RateLimitProperties.Route limit, Counter rejected) {
+
+        boolean matches(HttpServletRequest request) {
+            return limit.path().contains(request.getRequestURI()) && request.getMethod().equalsIgnoreCase(limit.method());
+        }
+    }
+
+    /** Holds the body read up front so the key can be taken from it and the controller can still read it. */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // Everything is already in memory: report it available and finished straight away.
+                    try {
+                        if (!isFinished()) listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
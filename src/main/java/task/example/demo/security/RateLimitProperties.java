@@ -0,0 +1,40 @@
+package task.example.demo.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code security.rate-limit.*}: one entry under {@code routes} per limit and key. A route covers
+ * every path in its comma-separated {@code path}, which share one bucket per key, and allows
+ * {@code burst} requests at once per key, refilling at {@code per-second}.
+ */
+@ConfigurationProperties("security.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") long maxBuckets,
+        @DefaultValue("600000") long idleMs,
+        Map<String, Route> routes) {
+
+    public RateLimitProperties {
+        routes = routes == null ? Map.of() : Map.copyOf(routes);
+    }
+
+    public record Route(@DefaultValue("POST") String method, List<String> path, Key key, int burst, double perSecond) {
+
+        public Route {
+            path = path == null ? List.of() : List.copyOf(path);
+        }
+    }
+
+    public enum Key {
+        /** Authenticated username; the client address for anonymous requests. */
+        USER,
+        /** {@code eventId} from the JSON request body, or each cart line's; every one must be under the limit. */
+        EVENT,
+        /** Remote address. */
+        CLIENT
+    }
+}
@@ -0,0 +1,38 @@
+package task.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token buckets per route and key. Buckets live in a size-bounded cache and are dropped after
+ * {@code idle-ms} without traffic, so a flood of distinct keys costs memory up to
+ * {@code max-buckets} and no more; an evicted key simply starts again with a full bucket.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxBuckets())
+                .expireAfterAccess(Duration.ofMillis(properties.idleMs()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "security.rate-limit.buckets");
+    }
+
+    /**
+     * @return 0 if the request may proceed, otherwise nanoseconds until {@code key} has a token again
+     */
+    public long tryAcquire(String routeName, RateLimitProperties.Route route, String key) {
+        long now = System.nanoTime();
+        return buckets.get(routeName + '|' + key, k -> new TokenBucket(route.burst(), route.perSecond(), now))
+                .tryAcquire(now);
+    }
+}
@@ -0,0 +1,34 @@
+package task.example.demo.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket held as a single timestamp (GCRA): {@code full} is when the bucket would be full
+ * again. Taking a token pushes it one refill interval further; a request is rejected if that would
+ * put it more than {@code burst} intervals ahead of now. Acquiring is one CAS and never blocks.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong full;
+
+    TokenBucket(int burst, double perSecond, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+        this.capacityNanos = intervalNanos * Math.max(burst, 1);
+        this.full = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise nanoseconds until one is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = full.get();
+            long next = (current - nowNanos > 0 ? current : nowNanos) + intervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) return wait;
+            if (full.compareAndSet(current, next)) return 0;
+        }
+    }
+}
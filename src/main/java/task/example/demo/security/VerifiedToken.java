@@ -0,0 +1,4 @@
+package task.example.demo.security;
+
+public record VerifiedToken(String username, Long userId, int epoch, long expiresAtMillis) {
+}
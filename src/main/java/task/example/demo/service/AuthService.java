@@ -1,39 +1,88 @@
 package task.example.demo.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import task.example.demo.dto.AuthResponse;
 import task.example.demo.entity.AppUser;
+import task.example.demo.replica.ReadRouting;
 import task.example.demo.repository.UserRepository;
 import task.example.demo.security.JwtService;
+import task.example.demo.security.PasswordHasher;
+import task.example.demo.security.PrincipalCache;
+import task.example.demo.security.VerifiedToken;
+
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final JwtService jwtService;
+    private final PrincipalCache principalCache;
+    private final ReadRouting readRouting;
 
-    public void register(String username, String password) {
+    // Hashing runs on PasswordHasher's workers; the returned futures complete there.
+    public CompletableFuture<Void> register(String username, String password) {
         if (username == null || username.isBlank()) throw new RuntimeException("Username required");
         if (password == null || password.length() < 6) throw new RuntimeException("Password too short");
         if (userRepository.existsByUsername(username)) throw new RuntimeException("Username already exists");
 
-        AppUser user = new AppUser();
-        user.setUsername(username);
-        user.setPasswordHash(passwordEncoder.encode(password));
-        userRepository.save(user);
+        return passwordHasher.encode(password).thenAccept(hash -> {
+            AppUser user = new AppUser();
+            user.setUsername(username);
+            user.setPasswordHash(hash);
+            userRepository.save(user);
+            readRouting.recordWrite(username);
+        });
     }
 
-    public String login(String username, String password) {
+    public CompletableFuture<AuthResponse> login(String username, String password) {
         AppUser user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
 
-        if (!passwordEncoder.matches(password, user.getPasswordHash())) {
-            throw new RuntimeException("Invalid credentials");
+        return passwordHasher.matches(password, user.getPasswordHash()).thenApply(matches -> {
+            if (!matches) throw new RuntimeException("Invalid credentials");
+            return issueTokens(user.getId(), user.getUsername(), user.getTokenEpoch());
+        });
+    }
+
+    /** New access and refresh tokens for a valid refresh token, without touching the password. */
+    public AuthResponse refresh(String refreshToken) {
+        VerifiedToken token;
+        try {
+            token = jwtService.verifyRefresh(refreshToken);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid refresh token");
         }
+        if (!principalCache.isActive(token)) throw new RuntimeException("Invalid refresh token");
+
+        return issueTokens(token.userId(), token.username(), token.epoch());
+    }
+
+    private AuthResponse issueTokens(Long userId, String username, int tokenEpoch) {
+        return new AuthResponse(
+                jwtService.generateToken(userId, username, tokenEpoch),
+                jwtService.generateRefreshToken(userId, username, tokenEpoch));
+    }
+
+    public void revokeTokens(String username) {
+        AppUser user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        user.setTokenEpoch(user.getTokenEpoch() + 1);
+        userRepository.save(user);
+        readRouting.recordWrite(username);
+        principalCache.revoke(user.getId(), user.getUsername(), user.getTokenEpoch());
+    }
+
+    public void deleteAccount(String username) {
+        AppUser user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return jwtService.generateToken(user.getId(), user.getUsername());
+        userRepository.delete(user);
+        readRouting.recordWrite(username);
+        principalCache.remove(user.getId());
     }
 }
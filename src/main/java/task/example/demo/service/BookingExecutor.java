@@ -0,0 +1,60 @@
+package task.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs bookings off the request thread when {@code booking.async.enabled=true}.
+ * The external processing step is a timer rather than a sleeping thread, and the short
+ * DB step runs on {@code booking.async.db-threads} workers, which should match the
+ * connection pool size so in-flight bookings are bounded by the DB and nothing else.
+ */
+@Component
+public class BookingExecutor {
+
+    private final boolean enabled;
+    private final ExecutorService dbExecutor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    public BookingExecutor(@Value("${booking.async.enabled:false}") boolean enabled,
+                           @Value("${booking.async.db-threads:10}") int dbThreads) {
+        this.enabled = enabled;
+        this.dbExecutor = enabled ? Executors.newFixedThreadPool(dbThreads) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> CompletableFuture<T> afterProcessing(long processingDelayMs, Supplier<T> dbStep) {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return CompletableFuture
+                .supplyAsync(dbStep, CompletableFuture.delayedExecutor(processingDelayMs, TimeUnit.MILLISECONDS, dbExecutor))
+                .whenComplete((result, error) -> inFlight.decrementAndGet());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (dbExecutor == null) return;
+        dbExecutor.shutdown();
+        dbExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
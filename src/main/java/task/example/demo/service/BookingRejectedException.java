@@ -0,0 +1,43 @@
+package task.example.demo.service;
+
+/**
+ * A booking refused because of the event's inventory rather than the request itself. The reason is
+ * what metrics and the availability index act on; the message is only for the client. Rejections are
+ * stackless: during a sell-out nearly every request ends here, and filling in a stack trace each time
+ * would cost more than the check itself.
+ */
+public class BookingRejectedException extends RuntimeException {
+
+    public enum Reason { SOLD_OUT, NOT_FOUND }
+
+    public static final BookingRejectedException SOLD_OUT = new BookingRejectedException(Reason.SOLD_OUT, null, "Not enough tickets available");
+    public static final BookingRejectedException NOT_FOUND = new BookingRejectedException(Reason.NOT_FOUND, null, "Event not found");
+
+    private final Reason reason;
+    private final Long eventId;
+
+    private BookingRejectedException(Reason reason, Long eventId, String message) {
+        super(message, null, false, false);
+        this.reason = reason;
+        this.eventId = eventId;
+    }
+
+    /** Sold-out rejection for one line of a multi-event request. */
+    public static BookingRejectedException soldOut(Long eventId) {
+        return new BookingRejectedException(Reason.SOLD_OUT, eventId, "Not enough tickets available for event " + eventId);
+    }
+
+    /** Not-found rejection for one line of a multi-event request. */
+    public static BookingRejectedException notFound(Long eventId) {
+        return new BookingRejectedException(Reason.NOT_FOUND, eventId, "Event not found: " + eventId);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /** The event the rejection applies to, or null when the request named only one. */
+    public Long getEventId() {
+        return eventId;
+    }
+}
@@ -1,68 +1,334 @@
 package task.example.demo.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.dto.BookingPage;
+import task.example.demo.dto.BookingView;
+import task.example.demo.dto.CartLine;
+import task.example.demo.dto.EventRequest;
+import task.example.demo.dto.UserBookingPage;
+import task.example.demo.dto.UserBookingView;
 import task.example.demo.entity.Booking;
 import task.example.demo.entity.TicketPool;
+import task.example.demo.event.InventoryChangedEvent;
+import task.example.demo.event.TicketPoolCreatedEvent;
+import task.example.demo.inventory.AvailabilityIndex;
+import task.example.demo.inventory.GroupCommitEngine;
+import task.example.demo.inventory.InventoryLedger;
+import task.example.demo.inventory.QuotaLeases;
+import task.example.demo.journal.BookingJournal;
+import task.example.demo.metrics.BookingMetrics;
+import task.example.demo.replica.ReadRouting;
+import task.example.demo.repository.BatchInserter;
 import task.example.demo.repository.BookingRepository;
 import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.stats.SalesAggregates;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final TicketPoolRepository ticketPoolRepository;
     private final BookingRepository bookingRepository;
+    private final BatchInserter batchInserter;
+    private final InventoryLedger inventoryLedger;
+    private final QuotaLeases quotaLeases;
+    private final AvailabilityIndex availabilityIndex;
+    private final GroupCommitEngine groupCommitEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final BookingExecutor bookingExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingMetrics metrics;
+    private final BookingJournal journal;
+    private final SalesAggregates salesAggregates;
+    private final ReadRouting readRouting;
+
+    @Value("${booking.processing-delay-ms:100}")
+    private long processingDelayMs;
 
-    @Transactional
     public Booking bookTickets(Long ticketPoolId, String username, int quantity) {
         if (quantity <= 0) throw new RuntimeException("Quantity must be > 0");
+        RuntimeException rejection = rejectFast(ticketPoolId);
+        if (rejection != null) throw rejection;
+
+
+        metrics.processing().record(this::simulateProcessingDelay);
+
+        return reserve(ticketPoolId, username, quantity);
+    }
+
+    public CompletableFuture<Booking> bookTicketsAsync(Long ticketPoolId, String username, int quantity) {
+        if (quantity <= 0) return CompletableFuture.failedFuture(new RuntimeException("Quantity must be > 0"));
+        RuntimeException rejection = rejectFast(ticketPoolId);
+        if (rejection != null) return CompletableFuture.failedFuture(rejection);
+
+        return afterProcessing(() -> reserve(ticketPoolId, username, quantity));
+    }
+
+    /**
+     * Books every line or none. Lines for the same event are merged, the processing step runs once
+     * for the whole cart, and pools are decremented in ascending id order so that concurrent carts
+     * always lock rows in the same order and cannot deadlock.
+     */
+    public CompletableFuture<List<Booking>> bookCartAsync(String username, List<CartLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Cart is empty"));
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CartLine line : lines) {
+            if (line.eventId() == null) return CompletableFuture.failedFuture(new RuntimeException("eventId required"));
+            if (line.quantity() <= 0) return CompletableFuture.failedFuture(new RuntimeException("Quantity must be > 0"));
+            quantities.merge(line.eventId(), line.quantity(), Integer::sum);
+        }
+        for (Long ticketPoolId : quantities.keySet()) {
+            RuntimeException rejection = rejectFast(ticketPoolId);
+            if (rejection != null) return CompletableFuture.failedFuture(rejection);
+        }
+
+        return afterProcessing(() -> reserveAll(username, quantities));
+    }
+
+    // Answers from the availability index alone: no processing delay, no SQL, no stack trace.
+    private RuntimeException rejectFast(Long ticketPoolId) {
+        RuntimeException rejection = null;
+        if (ticketPoolId == null || !availabilityIndex.exists(ticketPoolId)) {
+            rejection = BookingRejectedException.NOT_FOUND;
+        } else if (availabilityIndex.isSoldOut(ticketPoolId)) {
+            rejection = BookingRejectedException.SOLD_OUT;
+        }
+        if (rejection != null) metrics.countRequest(ticketPoolId, BookingMetrics.outcome(rejection));
+        return rejection;
+    }
+
+    private <T> CompletableFuture<T> afterProcessing(Supplier<T> dbStep) {
+        if (bookingExecutor.isEnabled()) {
+            long submittedAt = System.nanoTime();
+            return bookingExecutor.afterProcessing(processingDelayMs, () -> {
+                metrics.processing().record(Duration.ofNanos(System.nanoTime() - submittedAt));
+                return dbStep.get();
+            });
+        }
+        try {
+            metrics.processing().record(this::simulateProcessingDelay);
+            return CompletableFuture.completedFuture(dbStep.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Booking reserve(Long ticketPoolId, String username, int quantity) {
+        long start = System.nanoTime();
+        long stamp = availabilityIndex.stamp(ticketPoolId);
+        RuntimeException error = null;
+        int available = InventoryChangedEvent.UNKNOWN;
+        try {
+            journal.requireWritable();
+            Booking booking;
+            if (inventoryLedger.isEnabled()) {
+                booking = inventoryLedger.book(ticketPoolId, username, quantity);
+            } else if (quotaLeases.isEnabled()) {
+                booking = quotaLeases.book(ticketPoolId, username, quantity);
+            } else if (groupCommitEngine.isEnabled()) {
+                booking = groupCommitEngine.book(ticketPoolId, username, quantity);
+            } else {
+                booking = transactionTemplate.execute(status -> decrementAndSave(ticketPoolId, username, quantity));
+            }
+            journal.recordTaken(List.of(booking));
+            salesAggregates.record(booking);
+            readRouting.recordWrite(username);
+            available = recordAvailable(booking, stamp);
+            return booking;
+        } catch (RuntimeException e) {
+            error = e;
+            // Not even one ticket left: the pool is empty.
+            if (quantity == 1 && BookingMetrics.outcome(e).equals(BookingMetrics.SOLD_OUT) && !quotaLeases.isEnabled()) {
+                availabilityIndex.soldOut(ticketPoolId, stamp);
+            }
+            throw e;
+        } finally {
+            metrics.recordReserve(ticketPoolId, start, error);
+            eventPublisher.publishEvent(new InventoryChangedEvent(ticketPoolId, available, false));
+        }
+    }
+
+    private List<Booking> reserveAll(String username, SortedMap<Long, Integer> quantities) {
+        String outcome = BookingMetrics.REJECTED;
+        Long failedEvent = null;
+        Map<Long, Long> stamps = quantities.keySet().stream()
+                .collect(Collectors.toMap(Function.identity(), availabilityIndex::stamp));
+        Map<Long, Integer> available = new HashMap<>();
+        try {
+            journal.requireWritable();
+            List<Booking> bookings;
+            if (inventoryLedger.isEnabled()) {
+                bookings = inventoryLedger.bookAll(username, quantities);
+            } else if (quotaLeases.isEnabled()) {
+                bookings = quotaLeases.bookAll(username, quantities);
+            } else {
+                bookings = transactionTemplate.execute(status -> decrementAndSaveAll(username, quantities));
+            }
+            journal.recordTaken(bookings);
+            bookings.forEach(salesAggregates::record);
+            readRouting.recordWrite(username);
+            outcome = BookingMetrics.ACCEPTED;
+            bookings.forEach(booking -> available.put(booking.getTicketPool().getId(),
+                    recordAvailable(booking, stamps.get(booking.getTicketPool().getId()))));
+            return bookings;
+        } catch (RuntimeException e) {
+            outcome = BookingMetrics.outcome(e);
+            if (e instanceof BookingRejectedException rejected) failedEvent = rejected.getEventId();
+            throw e;
+        } finally {
+            for (Long id : quantities.keySet()) {
+                // Only the line that failed carries the cause; the rest of the cart was merely rejected with it.
+                metrics.countRequest(id, failedEvent == null || failedEvent.equals(id) ? outcome : BookingMetrics.REJECTED);
+                eventPublisher.publishEvent(new InventoryChangedEvent(id,
+                        available.getOrDefault(id, InventoryChangedEvent.UNKNOWN), false));
+            }
+        }
+    }
+
+    private int recordAvailable(Booking booking, long stamp) {
+        Long ticketPoolId = booking.getTicketPool().getId();
+        int available;
+        if (inventoryLedger.isEnabled()) {
+            available = inventoryLedger.getAvailable(ticketPoolId);
+        } else if (quotaLeases.isEnabled()) {
+            available = quotaLeases.getAvailable(ticketPoolId);
+        } else {
+            available = booking.getTicketPool().getAvailableTickets();
+        }
+        metrics.recordAvailable(ticketPoolId, available);
+        // With leases other nodes may still hold tickets and return them later, unseen by this node.
+        if (available == 0 && !quotaLeases.isEnabled()) availabilityIndex.soldOut(ticketPoolId, stamp);
+        return available;
+    }
 
+    private List<Booking> decrementAndSaveAll(String username, SortedMap<Long, Integer> quantities) {
+        quantities.forEach((ticketPoolId, quantity) -> {
+            if (ticketPoolRepository.tryDecrementTickets(ticketPoolId, quantity) == 0) {
+                if (!ticketPoolRepository.existsById(ticketPoolId)) {
+                    throw BookingRejectedException.notFound(ticketPoolId);
+                }
+                throw BookingRejectedException.soldOut(ticketPoolId);
+            }
+        });
 
-        simulateProcessingDelay();
+        Map<Long, TicketPool> pools = ticketPoolRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(TicketPool::getId, Function.identity()));
+        List<Booking> bookings = quantities.entrySet().stream()
+                .map(line -> new Booking(username, pools.get(line.getKey()), line.getValue()))
+                .toList();
+        return batchInserter.insertAll(bookings);
+    }
 
-        int updated = ticketPoolRepository.tryDecrementTickets(ticketPoolId, quantity);
+    private Booking decrementAndSave(Long ticketPoolId, String username, int quantity) {
+        int updated = metrics.decrement().record(() -> ticketPoolRepository.tryDecrementTickets(ticketPoolId, quantity));
         if (updated == 0) {
 
 
             if (!ticketPoolRepository.existsById(ticketPoolId)) {
-                throw new RuntimeException("Event not found");
+                throw BookingRejectedException.NOT_FOUND;
             }
-            throw new RuntimeException("Not enough tickets available");
+            throw BookingRejectedException.SOLD_OUT;
         }
 
 
         TicketPool pool = ticketPoolRepository.findById(ticketPoolId)
-                .orElseThrow(() -> new RuntimeException("Event not found"));
+                .orElseThrow(() -> BookingRejectedException.NOT_FOUND);
 
 
         Booking booking = new Booking(username, pool, quantity);
-        return bookingRepository.save(booking);
+        return metrics.insert().record(() -> bookingRepository.save(booking));
     }
 
+    // Journaled inside the transaction, so the event's record precedes any booking made against it.
+    @Transactional
     public TicketPool createEvent(String name, int totalTickets, double price) {
-        TicketPool pool = new TicketPool(name, totalTickets, price);
-        return ticketPoolRepository.save(pool);
+        TicketPool pool = ticketPoolRepository.save(new TicketPool(name, totalTickets, price));
+        journal.recordEvents(List.of(pool));
+        eventPublisher.publishEvent(new TicketPoolCreatedEvent(pool));
+        readRouting.recordWrite();
+        return pool;
     }
 
+    @Transactional
+    public List<TicketPool> createEvents(List<EventRequest> requests) {
+        List<TicketPool> pools = batchInserter.insertAll(requests.stream()
+                .map(request -> new TicketPool(request.name(), request.totalTickets(), request.price()))
+                .toList());
+        journal.recordEvents(pools);
+        pools.forEach(pool -> eventPublisher.publishEvent(new TicketPoolCreatedEvent(pool)));
+        readRouting.recordWrite();
+        return pools;
+    }
+
+    @Transactional(readOnly = true)
     public TicketPool getEvent(Long id) {
-        return ticketPoolRepository.findById(id).orElse(null);
+        return ticketPoolRepository.findById(id).map(this::withLeased).orElse(null);
     }
 
-    public List<Booking> getBookingsForEvent(Long ticketPoolId) {
-        return bookingRepository.findByTicketPoolId(ticketPoolId);
+    @Transactional(readOnly = true)
+    public BookingPage getBookingsForEvent(Long ticketPoolId, long afterId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<BookingView> items = bookingRepository.findPageByTicketPoolId(ticketPoolId, afterId, Limit.of(size));
+        Long nextCursor = items.size() == size ? items.get(items.size() - 1).id() : null;
+        return new BookingPage(items, nextCursor);
     }
 
+    @Transactional(readOnly = true)
+    public UserBookingPage getBookingsForUser(String username, long beforeId, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<UserBookingView> items = bookingRepository.findPageByUsername(username, beforeId, Limit.of(size));
+        Long nextCursor = items.size() == size ? items.get(items.size() - 1).id() : null;
+        return new UserBookingPage(items, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamBookingsForEvent(Long ticketPoolId, Consumer<BookingView> sink) {
+        try (Stream<BookingView> rows = bookingRepository.streamByTicketPoolId(ticketPoolId)) {
+            rows.forEach(sink);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<TicketPool> getAllEvents() {
-        return ticketPoolRepository.findAll();
+        return ticketPoolRepository.findAll().stream().map(this::withLeased).toList();
+    }
+
+    // With leases the column only counts unleased tickets; a copy also counts this node's unsold lease.
+    private TicketPool withLeased(TicketPool pool) {
+        if (!quotaLeases.isEnabled()) return pool;
+        TicketPool view = new TicketPool(pool.getEventName(), pool.getTotalTickets(), pool.getPrice());
+        view.setId(pool.getId());
+        view.setAvailableTickets(quotaLeases.available(pool));
+        return view;
     }
 
     private void simulateProcessingDelay() {
+        if (processingDelayMs <= 0) return;
         try {
-            Thread.sleep(100);
+            Thread.sleep(processingDelayMs);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
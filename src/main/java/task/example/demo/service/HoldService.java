@@ -0,0 +1,227 @@
+package task.example.demo.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.dto.HoldView;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.SeatHold;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.event.InventoryChangedEvent;
+import task.example.demo.inventory.AvailabilityIndex;
+import task.example.demo.inventory.InventoryLedger;
+import task.example.demo.inventory.QuotaLeases;
+import task.example.demo.inventory.TimingWheel;
+import task.example.demo.journal.BookingJournal;
+import task.example.demo.replica.ReadRouting;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.repository.SeatHoldRepository;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.stats.SalesAggregates;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Reserve-then-confirm bookings. A hold takes tickets from the pool in one short transaction and
+ * is stored in {@code seat_holds}; confirming it turns the row into a {@link Booking} without
+ * touching the pool again. Holds that are not confirmed within {@code booking.holds.ttl-ms} are
+ * returned to the pool by a {@link TimingWheel}, one transaction per tick for everything that expired.
+ */
+@Slf4j
+@Service
+public class HoldService {
+
+    private static final long RETRY_MS = 1000;
+
+    private final TicketPoolRepository ticketPoolRepository;
+    private final SeatHoldRepository seatHoldRepository;
+    private final BookingRepository bookingRepository;
+    private final InventoryLedger inventoryLedger;
+    private final QuotaLeases quotaLeases;
+    private final AvailabilityIndex availabilityIndex;
+    private final BookingJournal journal;
+    private final SalesAggregates salesAggregates;
+    private final ReadRouting readRouting;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long ttlMs;
+    private final TimingWheel<Long> expiries;
+
+    private final ConcurrentHashMap<Long, TimingWheel.Timeout<Long>> timeouts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HoldService(TicketPoolRepository ticketPoolRepository,
+                       SeatHoldRepository seatHoldRepository,
+                       BookingRepository bookingRepository,
+                       InventoryLedger inventoryLedger,
+                       QuotaLeases quotaLeases,
+                       AvailabilityIndex availabilityIndex,
+                       BookingJournal journal,
+                       SalesAggregates salesAggregates,
+                       ReadRouting readRouting,
+                       TransactionTemplate transactionTemplate,
+                       ApplicationEventPublisher eventPublisher,
+                       MeterRegistry meterRegistry,
+                       @Value("${booking.holds.ttl-ms:300000}") long ttlMs,
+                       @Value("${booking.holds.tick-ms:100}") long tickMs,
+                       @Value("${booking.holds.wheel-size:4096}") int wheelSize) {
+        this(ticketPoolRepository, seatHoldRepository, bookingRepository, inventoryLedger, quotaLeases, availabilityIndex,
+                journal, salesAggregates, readRouting, transactionTemplate, eventPublisher, meterRegistry,
+                ttlMs, tickMs, wheelSize, System::nanoTime);
+    }
+
+    // Tests pass a clock they move by hand and turn the wheel with expireDue().
+    HoldService(TicketPoolRepository ticketPoolRepository,
+                SeatHoldRepository seatHoldRepository,
+                BookingRepository bookingRepository,
+                InventoryLedger inventoryLedger,
+                QuotaLeases quotaLeases,
+                AvailabilityIndex availabilityIndex,
+                BookingJournal journal,
+                SalesAggregates salesAggregates,
+                ReadRouting readRouting,
+                TransactionTemplate transactionTemplate,
+                ApplicationEventPublisher eventPublisher,
+                MeterRegistry meterRegistry,
+                long ttlMs,
+                long tickMs,
+                int wheelSize,
+                LongSupplier nanoClock) {
+        this.ticketPoolRepository = ticketPoolRepository;
+        this.seatHoldRepository = seatHoldRepository;
+        this.bookingRepository = bookingRepository;
+        this.inventoryLedger = inventoryLedger;
+        this.quotaLeases = quotaLeases;
+        this.availabilityIndex = availabilityIndex;
+        this.journal = journal;
+        this.salesAggregates = salesAggregates;
+        this.readRouting = readRouting;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.ttlMs = ttlMs;
+        this.expiries = new TimingWheel<>("hold-expiry", tickMs, wheelSize, nanoClock, this::expire);
+        Gauge.builder("booking.holds.active", timeouts, Map::size)
+                .description("Holds waiting for confirmation or expiry")
+                .register(meterRegistry);
+    }
+
+    public HoldView hold(Long ticketPoolId, String username, int quantity) {
+        if (inventoryLedger.isEnabled()) throw new RuntimeException("Seat holds are not available in ledger mode");
+        if (ticketPoolId == null) throw new RuntimeException("eventId required");
+        if (quantity <= 0) throw new RuntimeException("Quantity must be > 0");
+        if (!availabilityIndex.exists(ticketPoolId)) throw BookingRejectedException.NOT_FOUND;
+        if (availabilityIndex.isSoldOut(ticketPoolId)) throw BookingRejectedException.SOLD_OUT;
+        journal.requireWritable();
+
+        long stamp = availabilityIndex.stamp(ticketPoolId);
+        SeatHold hold = transactionTemplate.execute(status -> {
+            if (ticketPoolRepository.tryDecrementTickets(ticketPoolId, quantity) == 0) {
+                if (!ticketPoolRepository.existsById(ticketPoolId)) {
+                    throw BookingRejectedException.NOT_FOUND;
+                }
+                throw BookingRejectedException.SOLD_OUT;
+            }
+            TicketPool pool = ticketPoolRepository.findById(ticketPoolId)
+                    .orElseThrow(() -> BookingRejectedException.NOT_FOUND);
+            return seatHoldRepository.save(new SeatHold(username, pool, quantity, LocalDateTime.now().plus(Duration.ofMillis(ttlMs))));
+        });
+        timeouts.put(hold.getId(), expiries.schedule(hold.getId(), ttlMs));
+        readRouting.recordWrite(username);
+        int available = hold.getTicketPool().getAvailableTickets();
+        // With leases the column only counts unleased tickets; nodes may still hold some.
+        if (available == 0 && !quotaLeases.isEnabled()) availabilityIndex.soldOut(ticketPoolId, stamp);
+        eventPublisher.publishEvent(InventoryChangedEvent.taken(ticketPoolId, available));
+        return view(hold);
+    }
+
+    public Booking confirm(Long holdId, String username) {
+        journal.requireWritable();
+        Booking booking = transactionTemplate.execute(status -> {
+            SeatHold hold = seatHoldRepository.findById(holdId)
+                    .filter(found -> found.getUsername().equals(username))
+                    .orElseThrow(() -> new RuntimeException("Hold not found"));
+            if (hold.getExpiresAt().isBefore(LocalDateTime.now())) {
+                throw new RuntimeException("Hold expired");
+            }
+            if (seatHoldRepository.claim(holdId) == 0) {
+                throw new RuntimeException("Hold not found");
+            }
+            return bookingRepository.save(new Booking(username, hold.getTicketPool(), hold.getQuantity()));
+        });
+        TimingWheel.Timeout<Long> timeout = timeouts.remove(holdId);
+        if (timeout != null) timeout.cancel();
+        journal.recordTaken(List.of(booking));
+        salesAggregates.record(booking);
+        readRouting.recordWrite(username);
+        return booking;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleOutstanding() {
+        LocalDateTime now = LocalDateTime.now();
+        int[] count = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<HoldView> holds = seatHoldRepository.streamAll()) {
+                holds.forEach(hold -> {
+                    timeouts.put(hold.id(), expiries.schedule(hold.id(), Duration.between(now, hold.expiresAt()).toMillis()));
+                    count[0]++;
+                });
+            }
+        });
+        if (count[0] > 0) log.info("Scheduled expiry for {} outstanding seat holds", count[0]);
+    }
+
+    void expireDue() throws InterruptedException {
+        expiries.tickNow();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        expiries.shutdown();
+    }
+
+    private void expire(List<Long> holdIds) {
+        Map<Long, Integer> released = new HashMap<>();
+        Map<Long, Integer> available = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (SeatHold hold : seatHoldRepository.findAllById(holdIds)) {
+                    if (seatHoldRepository.claim(hold.getId()) == 1) {
+                        released.merge(hold.getTicketPool().getId(), hold.getQuantity(), Integer::sum);
+                    }
+                }
+                released.forEach(ticketPoolRepository::releaseTickets);
+                released.keySet().forEach(poolId -> available.put(poolId, ticketPoolRepository.findAvailableTickets(poolId)));
+            });
+        } catch (RuntimeException e) {
+            log.error("Releasing {} expired holds failed, will retry", holdIds.size(), e);
+            holdIds.forEach(id -> timeouts.put(id, expiries.schedule(id, RETRY_MS)));
+            return;
+        }
+        holdIds.forEach(timeouts::remove);
+        released.keySet().forEach(poolId -> {
+            availabilityIndex.released(poolId);
+            eventPublisher.publishEvent(InventoryChangedEvent.released(poolId, available.get(poolId)));
+        });
+    }
+
+    private static HoldView view(SeatHold hold) {
+        return new HoldView(hold.getId(), hold.getTicketPool().getId(), hold.getQuantity(),
+                hold.getTotalPrice(), hold.getExpiresAt());
+    }
+}
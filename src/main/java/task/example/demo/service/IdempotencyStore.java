@@ -0,0 +1,81 @@
+package task.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Results of requests sent with an {@code Idempotency-Key}. The first request with a key runs;
+ * duplicates that arrive while it is in flight get the same future, and later ones get the stored
+ * result, so a retried booking never books twice. Only successes are kept: a failed attempt is
+ * handed to the requests already waiting on it and then forgotten, so the client can retry it.
+ * Entries are bounded by {@code max-entries} and expire {@code ttl-ms} after they were created.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final Cache<String, Entry> entries;
+    private final Counter replays;
+
+    public IdempotencyStore(@Value("${booking.idempotency.ttl-ms:86400000}") long ttlMs,
+                            @Value("${booking.idempotency.max-entries:100000}") long maxEntries,
+                            MeterRegistry meterRegistry) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "booking.idempotency");
+        this.replays = Counter.builder("booking.idempotency.replays")
+                .description("Requests answered from an earlier request with the same Idempotency-Key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per {@code key}. {@code fingerprint} identifies the request; reusing a
+     * key for a different request fails instead of replaying an unrelated result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String key, String fingerprint, Supplier<CompletableFuture<T>> action) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Entry entry = new Entry(fingerprint, result);
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                return CompletableFuture.failedFuture(
+                        new RuntimeException("Idempotency-Key was already used for a different request"));
+            }
+            replays.increment();
+            return (CompletableFuture<T>) existing.result();
+        }
+
+        start(action).whenComplete((value, error) -> {
+            if (error != null) {
+                entries.asMap().remove(key, entry);
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> action) {
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private record Entry(String fingerprint, CompletableFuture<?> result) {
+    }
+}
@@ -0,0 +1,147 @@
+package task.example.demo.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import task.example.demo.config.SchedulingConfig;
+import task.example.demo.dto.EventStats;
+import task.example.demo.dto.SalesStats;
+import task.example.demo.entity.Booking;
+import task.example.demo.inventory.InventoryLedger;
+import task.example.demo.journal.BookingJournal;
+import task.example.demo.repository.BookingRepository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tickets sold, bookings and revenue per event and in total, kept in adders that the booking paths
+ * bump once a booking has committed (or been taken by the inventory ledger), so dashboards never
+ * scan the bookings table.
+ * <p>
+ * Seeded on startup from the journal's totals, or from one GROUP BY over bookings without it.
+ * {@link #reconcile} repeats that GROUP BY in the background. Bookings in flight and ledger
+ * write-behind make the two differ for a moment, so a difference is only corrected once two runs
+ * in a row see exactly the same one. Pools the inventory ledger has not flushed, or keeps failing to
+ * flush, are left out: their rows are missing for as long as that lasts. While the journal is still backfilling older bookings the table
+ * is known to be short, so reconciliation waits for it.
+ */
+@Slf4j
+@Component
+public class SalesAggregates {
+
+    private static final double REVENUE_TOLERANCE = 0.005;
+
+    private final BookingRepository bookingRepository;
+    private final BookingJournal journal;
+    private final InventoryLedger inventoryLedger;
+    private final Counter corrections;
+
+    private final ConcurrentHashMap<Long, Sales> events = new ConcurrentHashMap<>();
+    private final Sales total = new Sales();
+    // Differences seen by the previous reconcile run.
+    private Map<Long, EventStats> suspected = Map.of();
+
+    public SalesAggregates(BookingRepository bookingRepository, BookingJournal journal, InventoryLedger inventoryLedger,
+                           MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.journal = journal;
+        this.inventoryLedger = inventoryLedger;
+        this.corrections = Counter.builder("booking.stats.corrections")
+                .description("Events whose sales aggregates were corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        List<EventStats> seed = journal.isEnabled() ? journal.sales() : bookingRepository.aggregateByTicketPool();
+        seed.forEach(this::add);
+        log.info("Sales aggregates loaded for {} events from the {}", seed.size(), journal.isEnabled() ? "journal" : "database");
+    }
+
+    public void record(Booking booking) {
+        add(new EventStats(booking.getTicketPool().getId(), booking.getQuantity(), 1, booking.getTotalPrice()));
+    }
+
+    public EventStats event(Long eventId) {
+        Sales sales = events.get(eventId);
+        return sales == null ? new EventStats(eventId, 0, 0, 0) : sales.view(eventId);
+    }
+
+    public SalesStats total() {
+        return new SalesStats(events.size(), total.tickets.sum(), total.bookings.sum(), total.revenue.sum());
+    }
+
+    /** Compares the aggregates with the bookings table and returns how many events it corrected. */
+    @Scheduled(fixedDelayString = "${booking.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${booking.stats.reconcile-interval-ms:300000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public synchronized int reconcile() {
+        if (journal.isEnabled() && !journal.isBackfilled()) return 0;
+        Set<Long> unflushed = new HashSet<>();
+        if (inventoryLedger.isEnabled()) unflushed.addAll(inventoryLedger.unflushedPools());
+        Map<Long, EventStats> counted = new HashMap<>();
+        bookingRepository.aggregateByTicketPool().forEach(stats -> counted.put(stats.eventId(), stats));
+        if (inventoryLedger.isEnabled()) unflushed.addAll(inventoryLedger.unflushedPools());
+        Set<Long> ids = new HashSet<>(counted.keySet());
+        ids.addAll(events.keySet());
+        ids.removeAll(unflushed);
+
+        Map<Long, EventStats> differences = new HashMap<>();
+        int corrected = 0;
+        for (Long id : ids) {
+            EventStats actual = counted.getOrDefault(id, new EventStats(id, 0, 0, 0));
+            EventStats kept = event(id);
+            EventStats difference = new EventStats(id, actual.ticketsSold() - kept.ticketsSold(),
+                    actual.bookings() - kept.bookings(), actual.revenue() - kept.revenue());
+            if (difference.ticketsSold() == 0 && difference.bookings() == 0
+                    && Math.abs(difference.revenue()) < REVENUE_TOLERANCE) {
+                continue;
+            }
+            EventStats previous = suspected.get(id);
+            if (previous != null && previous.ticketsSold() == difference.ticketsSold()
+                    && previous.bookings() == difference.bookings()
+                    && Math.abs(previous.revenue() - difference.revenue()) < REVENUE_TOLERANCE) {
+                log.warn("Sales aggregates for event {} were off by {} tickets, {} bookings, {} revenue; corrected",
+                        id, difference.ticketsSold(), difference.bookings(), difference.revenue());
+                add(difference);
+                corrected++;
+            } else {
+                differences.put(id, difference);
+            }
+        }
+        suspected = differences;
+        corrections.increment(corrected);
+        return corrected;
+    }
+
+    private void add(EventStats delta) {
+        events.computeIfAbsent(delta.eventId(), id -> new Sales()).add(delta);
+        total.add(delta);
+    }
+
+    private static final class Sales {
+        final LongAdder tickets = new LongAdder();
+        final LongAdder bookings = new LongAdder();
+        final DoubleAdder revenue = new DoubleAdder();
+
+        void add(EventStats delta) {
+            tickets.add(delta.ticketsSold());
+            bookings.add(delta.bookings());
+            revenue.add(delta.revenue());
+        }
+
+        EventStats view(Long eventId) {
+            return new EventStats(eventId, tickets.sum(), bookings.sum(), revenue.sum());
+        }
+    }
+}
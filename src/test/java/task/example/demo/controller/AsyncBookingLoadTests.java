@@ -0,0 +1,90 @@
+package task.example.demo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import task.example.demo.entity.AppUser;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.repository.UserRepository;
+import task.example.demo.security.JwtService;
+import task.example.demo.service.BookingExecutor;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "booking.async.enabled=true",
+        "security.rate-limit.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:async-tests"
+})
+class AsyncBookingLoadTests {
+
+    private static final int REQUESTS = 600;
+    private static final int DEFAULT_TOMCAT_THREADS = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketPoolRepository ticketPoolRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingExecutor bookingExecutor;
+
+    @Test
+    void inFlightBookingsExceedTomcatThreadCount() {
+        AppUser user = new AppUser();
+        user.setUsername("loadtest");
+        user.setPasswordHash("unused");
+        user = userRepository.save(user);
+        String token = jwtService.generateToken(user.getId(), user.getUsername(), user.getTokenEpoch());
+
+        TicketPool pool = ticketPoolRepository.save(new TicketPool("Async Load Test", REQUESTS / 2, 5.0));
+        String body = "{\"eventId\":" + pool.getId() + ",\"username\":\"loadtest\",\"quantity\":1}";
+
+        HttpClient client = HttpClient.newHttpClient();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/book"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        int confirmed = 0;
+        int rejected = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            int status = response.join().statusCode();
+            if (status == 200) confirmed++;
+            else if (status == 400) rejected++;
+        }
+
+        assertEquals(REQUESTS / 2, confirmed);
+        assertEquals(REQUESTS / 2, rejected);
+        assertEquals(REQUESTS / 2, bookingRepository.findByTicketPoolId(pool.getId()).size());
+        assertTrue(bookingExecutor.getPeakInFlight() > DEFAULT_TOMCAT_THREADS,
+                "peak in-flight bookings was " + bookingExecutor.getPeakInFlight());
+    }
+}
@@ -0,0 +1,151 @@
+package task.example.demo.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "security.rate-limit.enabled=false",
+        "security.admins=boss",
+        "security.password-hashing.threads=1",
+        "security.password-hashing.queue-capacity=4",
+        "spring.datasource.url=jdbc:h2:mem:auth-tests"
+})
+class AuthControllerTests {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void refreshTokenRenewsAccessUntilTokensAreRevoked() throws Exception {
+        assertEquals(200, post("/api/auth/register", "{\"username\":\"rita\",\"password\":\"secret1\"}", null).statusCode());
+        JsonNode login = objectMapper.readTree(
+                post("/api/auth/login", "{\"username\":\"rita\",\"password\":\"secret1\"}", null).body());
+        String refreshToken = login.get("refreshToken").asString();
+
+        HttpResponse<String> refreshed = refresh(refreshToken);
+        assertEquals(200, refreshed.statusCode());
+        JsonNode tokens = objectMapper.readTree(refreshed.body());
+        assertEquals(200, get("/api/bookings/me", tokens.get("token").asString()).statusCode());
+
+        // Neither kind of token is accepted in place of the other.
+        assertEquals(401, get("/api/bookings/me", refreshToken).statusCode());
+        assertEquals(401, refresh(login.get("token").asString()).statusCode());
+
+        assertEquals(200, post("/api/users/me/logout-all", "", tokens.get("token").asString()).statusCode());
+        assertEquals(401, refresh(tokens.get("refreshToken").asString()).statusCode());
+    }
+
+    @Test
+    void cachedAccessTokensStopWorkingAfterLogoutAllOrAccountDeletion() throws Exception {
+        String first = register("sam");
+        String second = objectMapper.readTree(post("/api/auth/login", "{\"username\":\"sam\",\"password\":\"secret1\"}", null)
+                .body()).get("token").asString();
+        double hits = cacheHits("jwt.verified-tokens");
+        assertEquals(200, get("/api/bookings/me", second).statusCode());
+        assertEquals(200, get("/api/bookings/me", second).statusCode());
+        assertTrue(cacheHits("jwt.verified-tokens") > hits);
+        assertTrue(cacheHits("security.principals") > 0);
+
+        assertEquals(200, post("/api/users/me/logout-all", "", first).statusCode());
+        assertEquals(401, get("/api/bookings/me", first).statusCode());
+        assertEquals(401, get("/api/bookings/me", second).statusCode());
+
+        String current = objectMapper.readTree(post("/api/auth/login", "{\"username\":\"sam\",\"password\":\"secret1\"}", null)
+                .body()).get("token").asString();
+        assertEquals(200, get("/api/bookings/me", current).statusCode());
+        assertEquals(200, client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/me"))
+                .header("Authorization", "Bearer " + current)
+                .DELETE()
+                .build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(401, get("/api/bookings/me", current).statusCode());
+    }
+
+    @Test
+    void loginsBeyondTheHashingQueueGet503() throws Exception {
+        assertEquals(200, post("/api/auth/register", "{\"username\":\"storm\",\"password\":\"secret1\"}", null).statusCode());
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            responses.add(client.sendAsync(request("/api/auth/login", "{\"username\":\"storm\",\"password\":\"secret1\"}", null),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        int ok = 0;
+        int busy = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            HttpResponse<String> result = response.join();
+            if (result.statusCode() == 200) ok++;
+            if (result.statusCode() == 503) {
+                busy++;
+                assertEquals("1", result.headers().firstValue("Retry-After").orElseThrow());
+            }
+        }
+        assertEquals(40, ok + busy);
+        assertTrue(ok >= 1, "ok: " + ok);
+        assertTrue(busy >= 1, "busy: " + busy);
+    }
+
+    @Test
+    void onlyAdminsOpenWaitingRooms() throws Exception {
+        String user = register("walter");
+        String admin = register("boss");
+        long eventId = objectMapper.readTree(post("/api/events",
+                "{\"name\":\"Flash\",\"totalTickets\":10,\"price\":1.0}", user).body()).get("id").asLong();
+
+        assertEquals(403, post("/api/events/" + eventId + "/waiting-room", "", user).statusCode());
+        assertEquals(200, post("/api/events/" + eventId + "/waiting-room", "", admin).statusCode());
+    }
+
+    private String register(String username) throws Exception {
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"secret1\"}";
+        assertEquals(200, post("/api/auth/register", credentials, null).statusCode());
+        return objectMapper.readTree(post("/api/auth/login", credentials, null).body()).get("token").asString();
+    }
+
+    private double cacheHits(String cache) {
+        return meterRegistry.get("cache.gets").tag("cache", cache).tag("result", "hit").functionCounter().count();
+    }
+
+    private HttpResponse<String> refresh(String refreshToken) throws Exception {
+        return post("/api/auth/refresh", "{\"refreshToken\":\"" + refreshToken + "\"}", null);
+    }
+
+    private HttpResponse<String> post(String path, String body, String token) throws Exception {
+        return client.send(request(path, body, token), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String path, String body, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        return request.build();
+    }
+}
@@ -0,0 +1,141 @@
+package task.example.demo.controller;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.entity.AppUser;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.inventory.InventoryLedger;
+import task.example.demo.inventory.QuotaLeases;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.repository.UserRepository;
+import task.example.demo.security.JwtService;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the app once per booking strategy and fires {@code load.requests} (default 500) concurrent
+ * authenticated {@code POST /api/book} calls at one pool with far fewer tickets than requested.
+ * Afterwards the persisted bookings must account for exactly the tickets that left the pool, and
+ * never more than it had. Latency histograms are written to {@code target/load-tests/<strategy>.hgrm};
+ * raise the load with e.g. {@code mvn test -Dtest=BookingContentionLoadTests -Dload.requests=5000}.
+ */
+class BookingContentionLoadTests {
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 500);
+    private static final int TOTAL_TICKETS = REQUESTS / 4;
+
+    enum Strategy {
+        TRANSACTIONAL(),
+        LEDGER("--booking.ledger.enabled=true"),
+        GROUP_COMMIT("--booking.group-commit.enabled=true"),
+        ASYNC("--booking.async.enabled=true"),
+        LEASE("--booking.lease.enabled=true");
+
+        private final String[] args;
+
+        Strategy(String... args) {
+            this.args = args;
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Strategy.class)
+    void soldOutPoolIsNeverOverbooked(Strategy strategy) throws Exception {
+        List<String> args = new ArrayList<>(List.of(strategy.args));
+        args.add("--server.port=0");
+        args.add("--security.rate-limit.enabled=false");
+        args.add("--spring.datasource.url=jdbc:h2:mem:contention-" + strategy.name().toLowerCase());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringTasksApplication.class)
+                .run(args.toArray(String[]::new))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            AppUser user = new AppUser();
+            user.setUsername("contention");
+            user.setPasswordHash("unused");
+            user = context.getBean(UserRepository.class).save(user);
+            String token = context.getBean(JwtService.class)
+                    .generateToken(user.getId(), user.getUsername(), user.getTokenEpoch());
+
+            TicketPoolRepository ticketPoolRepository = context.getBean(TicketPoolRepository.class);
+            TicketPool pool = ticketPoolRepository.save(new TicketPool("Contention " + strategy, TOTAL_TICKETS, 10.0));
+
+            Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+            HttpClient client = HttpClient.newHttpClient();
+            List<CompletableFuture<Integer>> responses = new ArrayList<>(REQUESTS);
+            long start = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                int quantity = 1 + i % 3;
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/book"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"eventId\":" + pool.getId()
+                                + ",\"username\":\"contention\",\"quantity\":" + quantity + "}"))
+                        .build();
+                long sentAt = System.nanoTime();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .thenApply(response -> {
+                            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sentAt));
+                            return response.statusCode() == 200 ? quantity : 0;
+                        }));
+            }
+
+            int confirmedTickets = 0;
+            for (CompletableFuture<Integer> response : responses) {
+                confirmedTickets += response.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            InventoryLedger ledger = context.getBean(InventoryLedger.class);
+            if (ledger.isEnabled()) ledger.drain();
+            QuotaLeases leases = context.getBean(QuotaLeases.class);
+            if (leases.isEnabled()) leases.returnAll();
+
+            int booked = context.getBean(BookingRepository.class).findByTicketPoolId(pool.getId()).stream()
+                    .mapToInt(Booking::getQuantity)
+                    .sum();
+            TicketPool stored = ticketPoolRepository.findById(pool.getId()).orElseThrow();
+
+            report(strategy, latencies, seconds);
+
+            assertEquals(stored.getTotalTickets() - stored.getAvailableTickets(), booked);
+            assertTrue(booked <= stored.getTotalTickets(), "overbooked: " + booked + " > " + stored.getTotalTickets());
+            assertEquals(confirmedTickets, booked);
+            assertTrue(stored.getAvailableTickets() < 3, "pool not sold out: " + stored.getAvailableTickets() + " left");
+        }
+    }
+
+    private void report(Strategy strategy, Histogram latencies, double seconds) throws Exception {
+        System.out.printf("%-13s %8.0f req/s  p50 %7.1f ms  p99 %7.1f ms  p999 %7.1f ms  max %7.1f ms%n",
+                strategy, latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0,
+                latencies.getMaxValue() / 1000.0);
+
+        Path dir = Files.createDirectories(Path.of("target", "load-tests"));
+        try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(strategy.name().toLowerCase() + ".hgrm")))) {
+            latencies.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package task.example.demo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "security.rate-limit.enabled=false",
+        "booking.processing-delay-ms=0",
+        "booking.catalog.max-staleness-ms=100",
+        "spring.datasource.url=jdbc:h2:mem:booking-controller-tests"
+})
+class BookingControllerTests {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void bookingsAreMadeForTheCallerOnly() throws Exception {
+        String token = register("mia");
+        long eventId = createEvent(token, "Own", 10);
+
+        assertEquals(403, post("/api/book", "{\"eventId\":" + eventId + ",\"username\":\"other\",\"quantity\":1}", token).statusCode());
+        assertEquals(403, post("/api/book/cart", "{\"username\":\"other\",\"lines\":[{\"eventId\":" + eventId + ",\"quantity\":1}]}",
+                token).statusCode());
+
+        assertEquals(200, post("/api/book", "{\"eventId\":" + eventId + ",\"quantity\":2}", token).statusCode());
+        assertEquals(200, post("/api/book/cart", "{\"username\":\"mia\",\"lines\":[{\"eventId\":" + eventId + ",\"quantity\":1}]}",
+                token).statusCode());
+        JsonNode mine = objectMapper.readTree(get("/api/bookings/me", token).body());
+        assertEquals(2, mine.get("items").size());
+    }
+
+    @Test
+    void eventBookingsArePagedByCursorAndStreamedAsNdjson() throws Exception {
+        String token = register("noor");
+        long eventId = createEvent(token, "Paged", 20);
+        for (int quantity = 1; quantity <= 5; quantity++) {
+            assertEquals(200, post("/api/book", "{\"eventId\":" + eventId + ",\"quantity\":" + quantity + "}", token).statusCode());
+        }
+
+        List<Long> paged = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        long after = 0;
+        while (true) {
+            JsonNode page = objectMapper.readTree(get("/api/events/" + eventId + "/bookings?limit=2&after=" + after, token).body());
+            pageSizes.add(page.get("items").size());
+            page.get("items").forEach(item -> paged.add(item.get("id").asLong()));
+            if (page.get("nextCursor").isNull()) break;
+            after = page.get("nextCursor").asLong();
+            assertEquals(paged.get(paged.size() - 1), after);
+        }
+        assertEquals(List.of(2, 2, 1), pageSizes);
+        assertEquals(paged.stream().sorted().toList(), paged);
+
+        HttpResponse<String> stream = client.send(request("/api/events/" + eventId + "/bookings", token)
+                .header("Accept", "application/x-ndjson")
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, stream.statusCode());
+        assertTrue(stream.headers().firstValue("Content-Type").orElseThrow().startsWith("application/x-ndjson"));
+        assertTrue(stream.body().endsWith("\n"));
+        List<Long> streamed = new ArrayList<>();
+        for (String line : stream.body().split("\n")) {
+            JsonNode booking = objectMapper.readTree(line);
+            assertEquals("noor", booking.get("username").asString());
+            streamed.add(booking.get("id").asLong());
+        }
+        assertEquals(paged, streamed);
+    }
+
+    @Test
+    void eventEtagIsRevalidatedAndChangesAfterABooking() throws Exception {
+        String token = register("otto");
+        long eventId = createEvent(token, "Tagged", 10);
+
+        HttpResponse<String> first = get("/api/events/" + eventId, token);
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        HttpResponse<String> unchanged = client.send(request("/api/events/" + eventId, token)
+                .header("If-None-Match", etag)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+
+        assertEquals(200, post("/api/book", "{\"eventId\":" + eventId + ",\"quantity\":3}", token).statusCode());
+        Thread.sleep(150); // past booking.catalog.max-staleness-ms
+
+        HttpResponse<String> changed = client.send(request("/api/events/" + eventId, token)
+                .header("If-None-Match", etag)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, changed.statusCode());
+        assertNotEquals(etag, changed.headers().firstValue("ETag").orElseThrow());
+        assertEquals(7, objectMapper.readTree(changed.body()).get("availableTickets").asInt());
+    }
+
+    private String register(String username) throws Exception {
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"secret1\"}";
+        assertEquals(200, post("/api/auth/register", credentials, null).statusCode());
+        return objectMapper.readTree(post("/api/auth/login", credentials, null).body()).get("token").asString();
+    }
+
+    private long createEvent(String token, String name, int tickets) throws Exception {
+        String body = "{\"name\":\"" + name + "\",\"totalTickets\":" + tickets + ",\"price\":10.0}";
+        return objectMapper.readTree(post("/api/events", body, token).body()).get("id").asLong();
+    }
+
+    private HttpResponse<String> post(String path, String body, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        return client.send(request(path, token).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token);
+    }
+}
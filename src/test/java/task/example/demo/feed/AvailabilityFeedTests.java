@@ -0,0 +1,222 @@
+package task.example.demo.feed;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.entity.AppUser;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.repository.UserRepository;
+import task.example.demo.security.JwtService;
+import task.example.demo.service.BookingService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Availability streams against a real server. The subscribers run in a child JVM: both ends of
+ * every connection in one process would need twice the file descriptors.
+ */
+class AvailabilityFeedTests {
+
+    private static final int TOTAL_TICKETS = 1_000;
+    private static final int BOOKINGS = 10;
+
+    @Test
+    void subscribersGetTheCountThenCoalescedUpdates() throws Exception {
+        run(100, "feed-small", false);
+    }
+
+    /** Run with {@code mvn test -Dbenchmark=true}. */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void tenThousandIdleSubscribersUseLittleHeapAndNoThreads() throws Exception {
+        run(10_000, "feed-10k", true);
+    }
+
+    private void run(int subscribers, String name, boolean measure) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringTasksApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + name,
+                "--booking.processing-delay-ms=0",
+                "--booking.feed.interval-ms=1000",
+                "--booking.feed.heartbeat-ms=500")) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            AppUser user = new AppUser();
+            user.setUsername("watcher");
+            user.setPasswordHash("unused");
+            user = context.getBean(UserRepository.class).save(user);
+            String token = context.getBean(JwtService.class).generateToken(user.getId(), user.getUsername(), user.getTokenEpoch());
+            BookingService bookingService = context.getBean(BookingService.class);
+            TicketPool pool = bookingService.createEvent("Feed", TOTAL_TICKETS, 10.0);
+
+            // One stream first, so one-time setup of the web stack is not counted per subscriber.
+            Process warmUp = subscribers(port, token, pool.getId(), 1);
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(warmUp.getInputStream()))) {
+                assertEquals("READY 1", waitFor(out, "READY"));
+            } finally {
+                warmUp.destroy();
+                warmUp.waitFor();
+            }
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            int threadsBefore = threads.getThreadCount();
+            long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+            Process clients = subscribers(port, token, pool.getId(), subscribers);
+            try (BufferedReader out = new BufferedReader(new InputStreamReader(clients.getInputStream()))) {
+                assertEquals("READY " + subscribers, waitFor(out, "READY"));
+
+                System.gc();
+                int threadsAdded = threads.getThreadCount() - threadsBefore;
+                long heapAdded = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+                System.out.printf("%d subscribers: +%d threads, +%d KB heap (%.1f KB per subscriber)%n",
+                        subscribers, threadsAdded, heapAdded / 1024, heapAdded / 1024.0 / subscribers);
+                if (measure) {
+                    // Threads come from the bounded Tomcat worker pool, not one per subscriber. The heap
+                    // is mostly Tomcat's request and response buffers, held per open async request.
+                    assertTrue(threadsAdded <= 200, "threads: " + threadsAdded);
+                    assertTrue(heapAdded < 128L * 1024 * subscribers, "heap: " + heapAdded);
+                }
+
+                for (int i = 0; i < BOOKINGS; i++) {
+                    bookingService.bookTickets(pool.getId(), "watcher", 1);
+                }
+                String updated = waitFor(out, "UPDATED");
+                System.out.println(updated);
+                List<String> fields = List.of(updated.split(" "));
+                assertEquals(String.valueOf(subscribers), fields.get(1), updated);
+                // Ten bookings reach every subscriber in fewer frames than bookings.
+                assertTrue(Integer.parseInt(fields.get(2)) < BOOKINGS, updated);
+            } finally {
+                clients.destroy();
+                clients.waitFor();
+            }
+
+            // Heartbeats find the closed streams, and the event's topic goes with its last subscriber.
+            AvailabilityFeed feed = context.getBean(AvailabilityFeed.class);
+            for (int i = 0; i < 200 && feed.topicCount() > 0; i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(0, feed.topicCount());
+        }
+    }
+
+    private static Process subscribers(int port, String token, Long eventId, int count) throws IOException {
+        return new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx256m", "-cp", System.getProperty("java.class.path"), Subscribers.class.getName(),
+                String.valueOf(port), token, String.valueOf(eventId), String.valueOf(count),
+                String.valueOf(TOTAL_TICKETS), String.valueOf(TOTAL_TICKETS - BOOKINGS))
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    private static String waitFor(BufferedReader out, String prefix) throws IOException {
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith(prefix) || line.startsWith("FAILED")) return line;
+        }
+        return "FAILED: subscriber process exited";
+    }
+
+    /**
+     * Opens the streams with plain non-blocking sockets, prints {@code READY n} once every stream
+     * shows the initial count and {@code UPDATED n maxFrames} once every stream shows the final one.
+     */
+    public static final class Subscribers {
+
+        public static void main(String[] args) throws IOException {
+            int port = Integer.parseInt(args[0]);
+            String token = args[1];
+            long eventId = Long.parseLong(args[2]);
+            int count = Integer.parseInt(args[3]);
+            String initial = "\"availableTickets\":" + args[4] + "}";
+            String last = "\"availableTickets\":" + args[5] + "}";
+            byte[] request = ("GET /api/events/" + eventId + "/stream HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Accept: text/event-stream\r\nAuthorization: Bearer " + token + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+
+            Selector selector = Selector.open();
+            for (int i = 0; i < count; i++) {
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+                channel.write(ByteBuffer.wrap(request));
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new Stream());
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(8192);
+            int ready = 0;
+            int updated = 0;
+            int maxFrames = 0;
+            boolean announced = false;
+            long deadline = System.nanoTime() + 120_000_000_000L;
+            while (updated < count) {
+                if (System.nanoTime() > deadline) {
+                    System.out.println("FAILED: ready " + ready + ", updated " + updated);
+                    return;
+                }
+                selector.select(1000);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Stream stream = (Stream) key.attachment();
+                    buffer.clear();
+                    if (((SocketChannel) key.channel()).read(buffer) < 0) {
+                        System.out.println("FAILED: stream closed");
+                        return;
+                    }
+                    String text = stream.tail + new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+                    if (!stream.ready && text.contains(initial)) {
+                        stream.ready = true;
+                        ready++;
+                        text = text.substring(text.indexOf(initial) + initial.length());
+                    }
+                    if (stream.ready) {
+                        for (int at = text.indexOf("event: availability"); at >= 0; at = text.indexOf("event: availability", at + 1)) {
+                            stream.frames++;
+                        }
+                        if (!stream.updated && text.contains(last)) {
+                            stream.updated = true;
+                            updated++;
+                            maxFrames = Math.max(maxFrames, stream.frames);
+                        }
+                    }
+                    stream.tail = text.substring(Math.max(0, text.length() - 64));
+                }
+                if (!announced && ready == count) {
+                    announced = true;
+                    System.out.println("READY " + ready);
+                }
+            }
+            System.out.println("UPDATED " + updated + " " + maxFrames);
+        }
+
+        private static final class Stream {
+            String tail = "";
+            boolean ready;
+            boolean updated;
+            int frames;
+        }
+    }
+}
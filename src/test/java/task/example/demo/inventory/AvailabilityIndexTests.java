@@ -0,0 +1,60 @@
+package task.example.demo.inventory;
+
+import org.junit.jupiter.api.Test;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.event.TicketPoolCreatedEvent;
+import task.example.demo.repository.TicketPoolRepository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvailabilityIndexTests {
+
+    private final TicketPoolRepository ticketPoolRepository = mock(TicketPoolRepository.class);
+    private final AvailabilityIndex index = new AvailabilityIndex(ticketPoolRepository, 100, 60_000);
+
+    @Test
+    void eventIdIsLookedUpOnceWhetherItExistsOrNot() {
+        when(ticketPoolRepository.existsById(1L)).thenReturn(true);
+        when(ticketPoolRepository.existsById(2L)).thenReturn(false);
+
+        assertTrue(index.exists(1L));
+        assertTrue(index.exists(1L));
+        assertFalse(index.exists(2L));
+        assertFalse(index.exists(2L));
+        verify(ticketPoolRepository, times(1)).existsById(1L);
+        verify(ticketPoolRepository, times(1)).existsById(2L);
+    }
+
+    @Test
+    void soldOutObservationRacingWithReleaseIsDropped() {
+        when(ticketPoolRepository.existsById(1L)).thenReturn(true);
+        index.exists(1L);
+
+        long stamp = index.stamp(1L);
+        index.released(1L);
+        index.soldOut(1L, stamp);
+        assertFalse(index.isSoldOut(1L));
+
+        index.soldOut(1L, index.stamp(1L));
+        assertTrue(index.isSoldOut(1L));
+
+        index.released(1L);
+        assertFalse(index.isSoldOut(1L));
+    }
+
+    @Test
+    void creatingAnEventForgetsThatItWasMissing() {
+        when(ticketPoolRepository.existsById(3L)).thenReturn(false);
+        assertFalse(index.exists(3L));
+
+        TicketPool pool = new TicketPool("Late", 10, 1.0);
+        pool.setId(3L);
+        index.onTicketPoolCreated(new TicketPoolCreatedEvent(pool));
+        assertTrue(index.exists(3L));
+    }
+}
@@ -0,0 +1,89 @@
+package task.example.demo.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.repository.BatchInserter;
+import task.example.demo.repository.TicketPoolRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput vs. latency of {@link GroupCommitEngine} for a few window/batch settings.
+ * Window 0 / batch 1 is one transaction per booking. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GroupCommitBenchmarkTests {
+
+    private static final int THREADS = 64;
+    private static final int BOOKINGS_PER_THREAD = 200;
+
+    @Autowired
+    private TicketPoolRepository ticketPoolRepository;
+
+    @Autowired
+    private BatchInserter batchInserter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void throughputVersusLatency() throws Exception {
+        System.out.printf("%-10s %-8s %12s %10s %10s%n", "window-ms", "batch", "bookings/s", "p50 ms", "p99 ms");
+        run(0, 1);
+        run(1, 64);
+        run(5, 256);
+        run(20, 1024);
+    }
+
+    private void run(long windowMs, int maxBatch) throws Exception {
+        int total = THREADS * BOOKINGS_PER_THREAD;
+        TicketPool pool = ticketPoolRepository.save(new TicketPool("Benchmark", total, 1.0));
+        GroupCommitEngine engine = new GroupCommitEngine(ticketPoolRepository, batchInserter,
+                transactionTemplate, true, windowMs, maxBatch, 4, new SimpleMeterRegistry());
+
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(clients.submit(() -> {
+                long[] latencies = new long[BOOKINGS_PER_THREAD];
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    long begin = System.nanoTime();
+                    engine.book(pool.getId(), "bench", 1);
+                    latencies[i] = System.nanoTime() - begin;
+                }
+                return latencies;
+            }));
+        }
+
+        long[] all = new long[total];
+        int offset = 0;
+        for (Future<long[]> result : results) {
+            long[] latencies = result.get();
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+            offset += latencies.length;
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+        engine.shutdown();
+
+        Arrays.sort(all);
+        System.out.printf("%-10d %-8d %12.0f %10.2f %10.2f%n", windowMs, maxBatch,
+                total / (elapsed / 1e9), all[total / 2] / 1e6, all[(int) (total * 0.99)] / 1e6);
+
+        assertEquals(0, ticketPoolRepository.findById(pool.getId()).orElseThrow().getAvailableTickets());
+    }
+}
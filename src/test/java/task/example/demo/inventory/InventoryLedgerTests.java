@@ -0,0 +1,138 @@
+package task.example.demo.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import task.example.demo.dto.EventStats;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.service.BookingService;
+import task.example.demo.stats.SalesAggregates;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "booking.ledger.enabled=true",
+        "booking.ledger.flush-interval-ms=3600000",
+        "booking.ledger.max-failed-flushes=2",
+        "spring.datasource.url=jdbc:h2:mem:ledger-tests"
+})
+class InventoryLedgerTests {
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private TicketPoolRepository ticketPoolRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SalesAggregates salesAggregates;
+
+    @Test
+    void concurrentBookingsNeverOverbookAndConvergeAfterDrain() throws Exception {
+        TicketPool pool = ticketPoolRepository.save(new TicketPool("Ledger Flash Sale", 500, 10.0));
+        TicketPool direct = ticketPoolRepository.save(new TicketPool("Ledger Direct", 500, 10.0));
+
+        // Bookings saved through JPA meanwhile draw ids from the same sequence.
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String username = "user" + i;
+            if (i % 10 == 0) executor.submit(() -> bookingRepository.save(new Booking(username, direct, 1)));
+            results.add(executor.submit(() -> {
+                try {
+                    return inventoryLedger.book(pool.getId(), username, 1).getId();
+                } catch (RuntimeException e) {
+                    return null;
+                }
+            }));
+        }
+
+        Set<Long> acceptedIds = new HashSet<>();
+        for (Future<Long> result : results) {
+            if (result.get() != null) acceptedIds.add(result.get());
+        }
+        executor.shutdown();
+        inventoryLedger.drain();
+
+        List<Booking> bookings = bookingRepository.findByTicketPoolId(pool.getId());
+        int booked = bookings.stream().mapToInt(Booking::getQuantity).sum();
+        TicketPool stored = ticketPoolRepository.findById(pool.getId()).orElseThrow();
+
+        assertEquals(500, acceptedIds.size());
+        assertEquals(500, booked);
+        assertEquals(acceptedIds, bookings.stream().map(Booking::getId).collect(Collectors.toSet()));
+        assertEquals(0, stored.getAvailableTickets());
+        assertEquals(0, inventoryLedger.getAvailable(pool.getId()));
+    }
+
+    @Test
+    void aDivergedPoolIsFlushedAloneAndPausedUntilItRecovers() {
+        TicketPool broken = ticketPoolRepository.save(new TicketPool("Ledger Broken", 10, 10.0));
+        TicketPool healthy = ticketPoolRepository.save(new TicketPool("Ledger Healthy", 10, 10.0));
+
+        Booking first = inventoryLedger.book(broken.getId(), "alice", 2);
+        Booking second = inventoryLedger.book(broken.getId(), "bob", 1);
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(8, first.getTicketPool().getAvailableTickets());
+        assertNotSame(first.getTicketPool(), second.getTicketPool());
+        inventoryLedger.book(healthy.getId(), "alice", 3);
+
+        broken.setAvailableTickets(0);
+        ticketPoolRepository.save(broken);
+        inventoryLedger.flush();
+        assertEquals(1, bookingRepository.findByTicketPoolId(healthy.getId()).size());
+        assertEquals(0, bookingRepository.findByTicketPoolId(broken.getId()).size());
+
+        inventoryLedger.flush();
+        assertThrows(RuntimeException.class, () -> inventoryLedger.book(broken.getId(), "carol", 1));
+        inventoryLedger.book(healthy.getId(), "carol", 1);
+
+        broken.setAvailableTickets(10);
+        ticketPoolRepository.save(broken);
+        inventoryLedger.flush();
+        assertEquals(List.of(first.getId(), second.getId()),
+                bookingRepository.findByTicketPoolId(broken.getId()).stream().map(Booking::getId).sorted().toList());
+        assertEquals(2, bookingRepository.findByTicketPoolId(healthy.getId()).size());
+        inventoryLedger.book(broken.getId(), "carol", 1);
+        inventoryLedger.drain();
+    }
+
+    @Test
+    void reconcileLeavesPoolsWithUnflushedBookingsAlone() {
+        TicketPool pool = ticketPoolRepository.save(new TicketPool("Ledger Stats", 10, 10.0));
+        bookingService.bookTickets(pool.getId(), "alice", 2);
+
+        // The booking is only in the ledger until the next flush, however many runs see it missing.
+        salesAggregates.reconcile();
+        salesAggregates.reconcile();
+        assertEquals(new EventStats(pool.getId(), 2, 1, 20.0), salesAggregates.event(pool.getId()));
+
+        inventoryLedger.flush();
+        salesAggregates.reconcile();
+        salesAggregates.reconcile();
+        assertEquals(new EventStats(pool.getId(), 2, 1, 20.0), salesAggregates.event(pool.getId()));
+    }
+}
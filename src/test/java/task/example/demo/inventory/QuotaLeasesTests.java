@@ -0,0 +1,141 @@
+package task.example.demo.inventory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.service.BookingService;
+import task.example.demo.service.HoldService;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Several nodes, each a full application context, booking against one file-mode H2 database.
+ */
+class QuotaLeasesTests {
+
+    private static final int NODES = 3;
+    private static final int THREADS_PER_NODE = 4;
+    private static final int TICKETS = 1_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void nodesSellEveryTicketExactlyOnceWithFewPoolRowUpdates() throws Exception {
+        List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+        try {
+            for (int i = 0; i < NODES; i++) {
+                nodes.add(node("--booking.lease.idle-timeout-ms=60000"));
+            }
+            TicketPool pool = nodes.get(0).getBean(BookingService.class).createEvent("Shared", TICKETS, 10.0);
+
+            // Every thread books until its own node turns it away, so no node stops with tickets leased.
+            ExecutorService executor = Executors.newFixedThreadPool(NODES * THREADS_PER_NODE);
+            List<Future<Integer>> sold = new ArrayList<>();
+            for (ConfigurableApplicationContext node : nodes) {
+                BookingService bookingService = node.getBean(BookingService.class);
+                for (int t = 0; t < THREADS_PER_NODE; t++) {
+                    String username = "buyer" + sold.size();
+                    sold.add(executor.submit(() -> {
+                        int count = 0;
+                        try {
+                            while (true) {
+                                bookingService.bookTickets(pool.getId(), username, 1);
+                                count++;
+                            }
+                        } catch (RuntimeException e) {
+                            assertEquals("Not enough tickets available", e.getMessage());
+                            return count;
+                        }
+                    }));
+                }
+            }
+            int accepted = 0;
+            for (Future<Integer> result : sold) {
+                accepted += result.get();
+            }
+            executor.shutdown();
+
+            BookingRepository bookings = nodes.get(0).getBean(BookingRepository.class);
+            assertEquals(TICKETS, accepted);
+            assertEquals(TICKETS, bookings.findByTicketPoolId(pool.getId()).size());
+            assertEquals(0, nodes.get(0).getBean(TicketPoolRepository.class).findAvailableTickets(pool.getId()));
+
+            double leased = 0;
+            long rowUpdates = 0;
+            for (ConfigurableApplicationContext node : nodes) {
+                MeterRegistry registry = node.getBean(MeterRegistry.class);
+                leased += registry.get("booking.lease.leased").counter().count();
+                rowUpdates += registry.get("booking.lease.extend").timer().count();
+            }
+            assertEquals(TICKETS, leased, 0.0);
+            // Blocks grow from min-block, so the pool row is locked far less often than once per booking.
+            assertTrue(rowUpdates <= TICKETS / 5, "pool row updates: " + rowUpdates);
+        } finally {
+            nodes.forEach(ConfigurableApplicationContext::close);
+        }
+    }
+
+    @Test
+    void unsoldTicketsGoBackWhenIdleAndOnShutdown() throws Exception {
+        try (ConfigurableApplicationContext idle = node("--booking.lease.idle-timeout-ms=200");
+             ConfigurableApplicationContext busy = node("--booking.lease.idle-timeout-ms=60000")) {
+            TicketPool pool = idle.getBean(BookingService.class).createEvent("Returns", 100, 10.0);
+            TicketPoolRepository pools = idle.getBean(TicketPoolRepository.class);
+
+            idle.getBean(BookingService.class).bookTickets(pool.getId(), "early", 1);
+            busy.getBean(BookingService.class).bookTickets(pool.getId(), "late", 1);
+            assertEquals(80, pools.findAvailableTickets(pool.getId()));
+
+            for (int i = 0; i < 100 && pools.findAvailableTickets(pool.getId()) < 89; i++) {
+                Thread.sleep(50);
+            }
+            assertEquals(89, pools.findAvailableTickets(pool.getId()));
+
+            busy.close();
+            assertEquals(98, pools.findAvailableTickets(pool.getId()));
+            assertEquals(2, idle.getBean(BookingRepository.class).count());
+        }
+    }
+
+    @Test
+    void leasedTicketsStayAvailableAfterAHoldEmptiesThePoolRow() {
+        try (ConfigurableApplicationContext node = node("--booking.lease.idle-timeout-ms=60000")) {
+            BookingService bookingService = node.getBean(BookingService.class);
+            TicketPool pool = bookingService.createEvent("Held", 100, 10.0);
+            bookingService.bookTickets(pool.getId(), "leaser", 1);
+
+            // The hold empties the column, but this node's lease still has nine tickets.
+            node.getBean(HoldService.class).hold(pool.getId(), "holder", 90);
+            assertEquals(0, node.getBean(TicketPoolRepository.class).findAvailableTickets(pool.getId()));
+            assertEquals(9, bookingService.getEvent(pool.getId()).getAvailableTickets());
+            assertEquals(9, bookingService.bookTickets(pool.getId(), "buyer", 9).getQuantity());
+        }
+    }
+
+    private ConfigurableApplicationContext node(String... args) {
+        List<String> all = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:file:" + dir.resolve("shared"),
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--booking.processing-delay-ms=0",
+                "--booking.lease.enabled=true",
+                "--booking.lease.min-block=10"));
+        all.addAll(List.of(args));
+        return new SpringApplicationBuilder(SpringTasksApplication.class).run(all.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,185 @@
+package task.example.demo.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.context.ConfigurableApplicationContext;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.dto.CartLine;
+import task.example.demo.dto.EventStats;
+import task.example.demo.dto.EventRequest;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.service.BookingService;
+import task.example.demo.stats.SalesAggregates;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingJournalTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restartReplaysJournalAndDropsTornTail() throws IOException {
+        Long concertId;
+        Long jazzId;
+        Long lastBookingId;
+        try (ConfigurableApplicationContext context = start("a")) {
+            BookingService bookingService = context.getBean(BookingService.class);
+            concertId = bookingService.createEvent("Concert", 10, 20.0).getId();
+            jazzId = bookingService.createEvents(List.of(new EventRequest("Jazz", 5, 15.0))).get(0).getId();
+            bookingService.bookTickets(concertId, "alice", 2);
+            bookingService.bookCartAsync("bob", List.of(new CartLine(concertId, 1), new CartLine(jazzId, 2))).join();
+            lastBookingId = bookingService.bookTickets(jazzId, "carol", 3).getId();
+        }
+
+        // A crash halfway through the last append: its checksum no longer matches.
+        tearLastRecord();
+
+        Long newBookingId;
+        try (ConfigurableApplicationContext context = start("b")) {
+            TicketPoolRepository pools = context.getBean(TicketPoolRepository.class);
+            BookingRepository bookings = context.getBean(BookingRepository.class);
+            assertEquals(7, pools.findById(concertId).orElseThrow().getAvailableTickets());
+            assertEquals(3, pools.findById(jazzId).orElseThrow().getAvailableTickets());
+            assertEquals(3, bookings.count());
+            assertTrue(bookings.findById(lastBookingId).isEmpty());
+
+            BookingService bookingService = context.getBean(BookingService.class);
+            TicketPool added = bookingService.createEvent("Opera", 4, 50.0);
+            assertTrue(added.getId() > jazzId);
+            Booking booking = bookingService.bookTickets(jazzId, "dave", 1);
+            assertTrue(booking.getId() > bookings.findAll().stream()
+                    .filter(b -> !b.getId().equals(booking.getId()))
+                    .mapToLong(Booking::getId).max().orElseThrow());
+            newBookingId = booking.getId();
+        }
+
+        try (ConfigurableApplicationContext context = start("c")) {
+            TicketPoolRepository pools = context.getBean(TicketPoolRepository.class);
+            BookingRepository bookings = context.getBean(BookingRepository.class);
+            assertEquals(3, pools.count());
+            assertEquals(2, pools.findById(jazzId).orElseThrow().getAvailableTickets());
+            assertEquals("dave", bookings.findById(newBookingId).orElseThrow().getUsername());
+        }
+    }
+
+    @Test
+    void restartLoadsSnapshotAndReplaysOnlyTheTail() throws InterruptedException {
+        Path journalDir = dir.resolve("snapshots");
+        Long concertId;
+        Long tailBookingId;
+        try (ConfigurableApplicationContext context = start("d", journalDir)) {
+            BookingService bookingService = context.getBean(BookingService.class);
+            concertId = bookingService.createEvent("Concert", 100, 10.0).getId();
+            for (int i = 0; i < 10; i++) {
+                bookingService.bookTickets(concertId, "user" + i, 2);
+            }
+            context.getBean(BookingJournal.class).snapshot();
+            tailBookingId = bookingService.bookTickets(concertId, "late", 5).getId();
+        }
+        assertEquals(1, journalDir.toFile().list((parent, name) -> name.endsWith(".snap")).length);
+
+        try (ConfigurableApplicationContext context = start("e", journalDir)) {
+            TicketPoolRepository pools = context.getBean(TicketPoolRepository.class);
+            BookingRepository bookings = context.getBean(BookingRepository.class);
+            assertEquals(75, pools.findById(concertId).orElseThrow().getAvailableTickets());
+            assertEquals("late", bookings.findById(tailBookingId).orElseThrow().getUsername());
+            assertEquals(new EventStats(concertId, 25, 11, 250.0),
+                    context.getBean(SalesAggregates.class).event(concertId));
+
+            // Rows from before the snapshot arrive in the background; the node is ready once they have.
+            JournalHealthIndicator health = context.getBean(JournalHealthIndicator.class);
+            for (int i = 0; i < 100 && health.health().getStatus() != Status.UP; i++) {
+                Thread.sleep(50);
+            }
+            assertEquals(Status.UP, health.health().getStatus());
+            assertEquals(11, bookings.count());
+            Booking booking = context.getBean(BookingService.class).bookTickets(concertId, "next", 1);
+            assertTrue(booking.getId() > tailBookingId);
+        }
+    }
+
+    @Test
+    void bookingsAreRefusedBeforeTakingTicketsOnceTheJournalIsClosed() throws InterruptedException {
+        try (ConfigurableApplicationContext context = start("g", dir.resolve("closed"))) {
+            BookingService bookingService = context.getBean(BookingService.class);
+            Long concertId = bookingService.createEvent("Concert", 10, 20.0).getId();
+            context.getBean(BookingJournal.class).close();
+
+            assertThrows(IllegalStateException.class, () -> bookingService.bookTickets(concertId, "alice", 2));
+            assertEquals(10, context.getBean(TicketPoolRepository.class).findById(concertId).orElseThrow().getAvailableTickets());
+            assertEquals(0, context.getBean(BookingRepository.class).count());
+        }
+    }
+
+    @Test
+    void intactRecordThatCannotBeReplayedStopsStartupAndIsKept() throws IOException {
+        // A booking for an event the journal never recorded, with a valid checksum.
+        byte[] username = "alice".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(47 + username.length);
+        payload.put((byte) 2).putInt(1)
+                .putLong(1).putLong(99).putInt(1).putDouble(10.0).putLong(0).putInt(0)
+                .putShort((short) username.length).put(username);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.array());
+        Path segment = dir.resolve("0000000000000001.journal");
+        byte[] contents = ByteBuffer.allocate(256)
+                .putInt(payload.capacity()).putInt((int) crc.getValue()).put(payload.array())
+                .array();
+        Files.write(segment, contents);
+
+        assertThrows(RuntimeException.class, () -> start("f").close());
+        assertArrayEquals(contents, Files.readAllBytes(segment));
+    }
+
+    private ConfigurableApplicationContext start(String name) {
+        return start(name, dir);
+    }
+
+    private ConfigurableApplicationContext start(String name, Path journalDir) {
+        return new SpringApplicationBuilder(SpringTasksApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:journal-" + name,
+                "--booking.processing-delay-ms=0",
+                "--booking.journal.enabled=true",
+                "--booking.journal.dir=" + journalDir,
+                "--booking.journal.segment-bytes=256");
+    }
+
+    private void tearLastRecord() throws IOException {
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int offset = 0;
+            int last = -1;
+            while (buffer.getInt(offset) != 0) {
+                last = offset;
+                offset += 8 + buffer.getInt(offset);
+            }
+            int payloadEnd = last + 8 + buffer.getInt(last);
+            buffer.put(payloadEnd - 1, (byte) (buffer.get(payloadEnd - 1) ^ 0x5A));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package task.example.demo.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.service.BookingService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Application startup time against journal size, restoring from a snapshot versus replaying the
+ * whole journal. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JournalRestoreBenchmarkTests {
+
+    private static final int EVENTS = 1_000;
+    private static final int BATCH = 100;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void startupTimeBySize() throws IOException {
+        for (int bookings : new int[]{10_000, 100_000, 1_000_000}) {
+            Path journalDir = dir.resolve("size-" + bookings);
+            try (ConfigurableApplicationContext context = start("fill-" + bookings, journalDir)) {
+                fill(context, bookings);
+            }
+            report("snapshot", bookings, journalDir);
+            deleteSnapshots(journalDir);
+            report("full replay", bookings, journalDir);
+        }
+    }
+
+    private void fill(ConfigurableApplicationContext context, int bookings) {
+        BookingService bookingService = context.getBean(BookingService.class);
+        BookingJournal journal = context.getBean(BookingJournal.class);
+        List<TicketPool> pools = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            pools.add(bookingService.createEvent("Event " + i, bookings, 10.0));
+        }
+        List<Booking> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < bookings; i++) {
+            Booking booking = new Booking("user" + i % 1000, pools.get(i % EVENTS), 1);
+            booking.setId((long) i + 1);
+            batch.add(booking);
+            if (batch.size() == BATCH) {
+                journal.recordBookings(batch);
+                batch = new ArrayList<>(BATCH);
+            }
+        }
+        journal.recordBookings(batch);
+        journal.snapshot();
+    }
+
+    private void report(String mode, int bookings, Path journalDir) {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = start(mode.replace(' ', '-') + "-" + bookings, journalDir)) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-12s %9d bookings %8.2f s to ready%n", mode, bookings, seconds);
+        }
+    }
+
+    private void deleteSnapshots(Path journalDir) throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            for (Path file : files.filter(file -> file.toString().endsWith(".snap")).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext start(String name, Path journalDir) {
+        return new SpringApplicationBuilder(SpringTasksApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:restore-" + name,
+                "--booking.journal.enabled=true",
+                "--booking.journal.dir=" + journalDir);
+    }
+}
@@ -0,0 +1,79 @@
+package task.example.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import task.example.demo.config.MetricsConfig;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.service.BookingRejectedException;
+import task.example.demo.service.BookingService;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "booking.processing-delay-ms=0",
+        "spring.datasource.url=jdbc:h2:mem:booking-metrics"
+})
+class BookingMetricsTests {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void bookingOutcomesAreTaggedByReason() {
+        TicketPool pool = bookingService.createEvent("Metered", 2, 10.0);
+        String event = String.valueOf(pool.getId());
+
+        bookingService.bookTickets(pool.getId(), "meg", 1);
+        // Too many for the one ticket left: rejected by the reservation itself.
+        assertThrows(BookingRejectedException.class, () -> bookingService.bookTickets(pool.getId(), "meg", 2));
+        bookingService.bookTickets(pool.getId(), "meg", 1);
+        // Now sold out: rejected from the availability index before any SQL.
+        assertThrows(BookingRejectedException.class, () -> bookingService.bookTickets(pool.getId(), "meg", 1));
+        assertThrows(BookingRejectedException.class, () -> bookingService.bookTickets(Long.MAX_VALUE, "meg", 1));
+
+        assertEquals(2, requests(event, BookingMetrics.ACCEPTED));
+        assertEquals(2, requests(event, BookingMetrics.SOLD_OUT));
+        assertEquals(1, requests("none", BookingMetrics.NOT_FOUND));
+        assertEquals(2, meterRegistry.get("booking.reserve").tag("outcome", BookingMetrics.ACCEPTED).timer().count());
+        assertEquals(1, meterRegistry.get("booking.reserve").tag("outcome", BookingMetrics.SOLD_OUT).timer().count());
+        assertEquals(0, meterRegistry.get("booking.tickets.available").tag("event", event).gauge().value());
+    }
+
+    @Test
+    void eventTagsStopAtTheCap() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MetricsConfig().bookingEventTagLimit(3));
+        BookingMetrics metrics = new BookingMetrics(registry);
+
+        for (long event = 1; event <= 5; event++) {
+            metrics.countRequest(event, BookingMetrics.ACCEPTED);
+            metrics.recordAvailable(event, 10);
+        }
+        metrics.countRequest(2L, BookingMetrics.ACCEPTED);
+
+        Set<String> events = registry.getMeters().stream()
+                .map(meter -> meter.getId().getTag("event"))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("1", "2", "3"), events);
+        assertEquals(2, registry.get("booking.requests").tag("event", "2").counter().count());
+        assertNull(registry.find("booking.requests").tag("event", "4").meter());
+        assertEquals(3, registry.find("booking.tickets.available").meters().size());
+    }
+
+    private double requests(String event, String outcome) {
+        return meterRegistry.get("booking.requests").tag("event", event).tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,89 @@
+package task.example.demo.queue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import task.example.demo.dto.QueueStatus;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WaitingRoomTests {
+
+    // 20 per second at 100 ms ticks: two buyers admitted per tick.
+    private final WaitingRoom waitingRoom = new WaitingRoom("waiting-room-test-secret-0123456789abcdef",
+            100, 20, 5, 100, 10, 0.5, 500, 4, new SimpleMeterRegistry());
+
+    @Test
+    void buyersAreAdmittedInOrderAndTokensBookOnce() {
+        waitingRoom.open(1L);
+        QueueStatus alice = waitingRoom.join(1L, "alice");
+        QueueStatus bob = waitingRoom.join(1L, "bob");
+        QueueStatus carol = waitingRoom.join(1L, "carol");
+        assertEquals(1, alice.position());
+        assertEquals(3, carol.position());
+
+        assertThrows(RuntimeException.class, () -> waitingRoom.admit(1L, "alice", alice.token()));
+        waitingRoom.tick();
+
+        assertTrue(waitingRoom.status(1L, "bob", bob.token()).admitted());
+        assertEquals(1, waitingRoom.status(1L, "carol", carol.token()).position());
+        assertThrows(RuntimeException.class, () -> waitingRoom.admit(1L, "carol", carol.token()));
+        assertThrows(RuntimeException.class, () -> waitingRoom.admit(1L, "mallory", alice.token()));
+        assertThrows(RuntimeException.class, () -> waitingRoom.admit(1L, "alice", null));
+
+        assertTrue(waitingRoom.admit(1L, "alice", alice.token()));
+        assertThrows(RuntimeException.class, () -> waitingRoom.admit(1L, "alice", alice.token()));
+        assertFalse(waitingRoom.admit(2L, "alice", null));
+    }
+
+    @Test
+    void aBuyerHoldsOnePlaceUntilTheTokenIsUsed() {
+        waitingRoom.open(1L);
+        QueueStatus first = waitingRoom.join(1L, "alice");
+        waitingRoom.join(1L, "bob");
+        QueueStatus again = waitingRoom.join(1L, "alice");
+        assertEquals(first.token(), again.token());
+        assertEquals(1, again.position());
+
+        waitingRoom.tick();
+        assertTrue(waitingRoom.admit(1L, "alice", first.token()));
+        assertEquals(1, waitingRoom.join(1L, "alice").position());
+    }
+
+    @Test
+    void tokensExpireOnceTheAdmissionWindowHasMovedPastThem() {
+        waitingRoom.open(1L);
+        QueueStatus[] buyers = new QueueStatus[10];
+        for (int i = 0; i < buyers.length; i++) {
+            buyers[i] = waitingRoom.join(1L, "buyer-" + i);
+        }
+        for (int tick = 0; tick < 5; tick++) {
+            waitingRoom.tick(); // two admitted per tick, window of four
+        }
+
+        assertThrows(RuntimeException.class, () -> waitingRoom.admit(1L, "buyer-0", buyers[0].token()));
+        assertTrue(waitingRoom.admit(1L, "buyer-9", buyers[9].token()));
+        assertTrue(waitingRoom.admit(1L, "buyer-6", buyers[6].token()));
+        assertThrows(RuntimeException.class, () -> waitingRoom.admit(1L, "buyer-9", buyers[9].token()));
+    }
+
+    @Test
+    void admissionRateFollowsBookingLatency() {
+        waitingRoom.open(1L);
+        for (int i = 0; i < 100; i++) {
+            waitingRoom.join(1L, "buyer-" + i);
+        }
+        waitingRoom.recordBooking(1L, TimeUnit.MILLISECONDS.toNanos(100));
+        waitingRoom.tick(); // fast bookings: 20 -> 30 per second, 3 admitted
+        waitingRoom.recordBooking(1L, TimeUnit.MILLISECONDS.toNanos(2000));
+        waitingRoom.tick(); // slow bookings: 30 -> 15 per second, 1.5 admitted
+
+        QueueStatus last = waitingRoom.join(1L, "late");
+        assertEquals(100 - 4 + 1, last.position());
+        assertEquals((long) Math.ceil(97 / 15.0), last.estimatedWaitSeconds());
+    }
+}
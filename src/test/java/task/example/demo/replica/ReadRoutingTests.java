@@ -0,0 +1,130 @@
+package task.example.demo.replica;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import task.example.demo.catalog.EventCatalog;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.service.BookingService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two in-memory H2 databases as primary and replica. Heartbeats and replication run only when the
+ * test calls {@link #replicate()}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rw-primary",
+        "booking.processing-delay-ms=0",
+        "booking.replica.enabled=true",
+        "booking.replica.url=jdbc:h2:mem:rw-replica",
+        "booking.replica.max-lag-ms=1000",
+        "booking.replica.heartbeat-ms=3600000",
+        "booking.replica.stand-in.enabled=true",
+        "booking.replica.stand-in.interval-ms=3600000",
+        "booking.catalog.max-staleness-ms=0"
+})
+class ReadRoutingTests {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @Autowired
+    private StandInReplicator replicator;
+
+    @Autowired
+    private EventCatalog catalog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readsUseTheReplicaUnlessItLagsOrMissesTheUsersOwnWrite() throws InterruptedException {
+        replicate();
+        TicketPool concert = bookingService.createEvent("Concert", 10, 20.0);
+        assertFalse(eventNames().contains("Concert"), "served by the replica, which has not caught up");
+        replicate();
+        assertTrue(eventNames().contains("Concert"));
+
+        authenticate("alice");
+        bookingService.bookTickets(concert.getId(), "alice", 2);
+        double replicaReads = reads("replica");
+        assertEquals(1, bookingService.getBookingsForUser("alice", Long.MAX_VALUE, 10).items().size());
+        assertEquals(replicaReads, reads("replica"));
+
+        authenticate("bob");
+        assertEquals(0, bookingService.getBookingsForEvent(concert.getId(), 0, 10).items().size());
+
+        replicate();
+        authenticate("alice");
+        assertEquals(1, bookingService.getBookingsForUser("alice", Long.MAX_VALUE, 10).items().size());
+        assertEquals(replicaReads + 2, reads("replica"));
+
+        // The creator of an event sees it at once; everyone else once it has replicated.
+        authenticate("carol");
+        bookingService.createEvent("Ballet", 10, 30.0);
+        assertTrue(eventNames().contains("Ballet"));
+        authenticate("bob");
+        assertFalse(eventNames().contains("Ballet"));
+
+        // Past max-lag-ms without replication every read goes to the primary.
+        SecurityContextHolder.clearContext();
+        bookingService.createEvent("Opera", 10, 50.0);
+        Thread.sleep(1_100);
+        monitor.beat();
+        assertTrue(eventNames().contains("Opera"));
+    }
+
+    @Test
+    void catalogRebuildsAreNotServedFromALaggingReplica() throws InterruptedException {
+        TicketPool festival = bookingService.createEvent("Festival", 10, 20.0);
+        replicate();
+        assertTrue(catalogJson(festival).contains("\"availableTickets\":10"));
+
+        // The replica is within max-lag-ms but does not have this booking yet.
+        bookingService.bookTickets(festival.getId(), "dave", 3);
+        assertTrue(catalogJson(festival).contains("\"availableTickets\":7"));
+        assertEquals(10, bookingService.getEvent(festival.getId()).getAvailableTickets());
+    }
+
+    private String catalogJson(TicketPool pool) {
+        return new String(catalog.event(pool.getId()).body(), StandardCharsets.UTF_8);
+    }
+
+    private void replicate() throws InterruptedException {
+        Thread.sleep(2); // heartbeats are in milliseconds; keep them strictly after earlier writes
+        monitor.beat();
+        replicator.sync();
+        monitor.beat();
+    }
+
+    private List<String> eventNames() {
+        return bookingService.getAllEvents().stream().map(TicketPool::getEventName).toList();
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("booking.replica.reads").tag("target", target).counter().count();
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
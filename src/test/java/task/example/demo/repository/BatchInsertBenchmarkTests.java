@@ -0,0 +1,60 @@
+package task.example.demo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Booking insert throughput: one transaction per row (the plain booking path) versus
+ * {@link BatchInserter} in a single transaction. Run with {@code mvn test -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchInsertBenchmarkTests {
+
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private TicketPoolRepository ticketPoolRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BatchInserter batchInserter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void insertThroughput() {
+        TicketPool pool = ticketPoolRepository.save(new TicketPool("Insert Benchmark", ROWS, 1.0));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            Booking booking = new Booking("bench", pool, 1);
+            transactionTemplate.executeWithoutResult(status -> bookingRepository.save(booking));
+        }
+        report("transaction per row", start);
+
+        List<Booking> bookings = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            bookings.add(new Booking("bench", pool, 1));
+        }
+        start = System.nanoTime();
+        batchInserter.insertAll(bookings);
+        report("batched, one transaction", start);
+    }
+
+    private void report(String mode, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-26s %8d rows %10.0f rows/s%n", mode, ROWS, ROWS / seconds);
+    }
+}
@@ -0,0 +1,62 @@
+package task.example.demo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import task.example.demo.dto.UserBookingPage;
+import task.example.demo.dto.UserBookingView;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.service.BookingService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:booking-repository")
+class BookingRepositoryTests {
+
+    @Autowired
+    private TicketPoolRepository ticketPoolRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void userHistoryPagesNewestFirstThroughTheUsernameIndex() {
+        TicketPool pool = ticketPoolRepository.save(new TicketPool("History", 100, 5.0));
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            bookings.add(new Booking(i % 2 == 0 ? "alice" : "bob", pool, 1));
+        }
+        bookingRepository.saveAll(bookings);
+
+        List<Long> ids = new ArrayList<>();
+        UserBookingPage page = bookingService.getBookingsForUser("alice", Long.MAX_VALUE, 3);
+        ids.addAll(page.items().stream().map(UserBookingView::id).toList());
+        assertEquals(pool.getId(), page.items().get(0).eventId());
+        page = bookingService.getBookingsForUser("alice", page.nextCursor(), 3);
+        ids.addAll(page.items().stream().map(UserBookingView::id).toList());
+        assertNull(page.nextCursor());
+
+        List<Long> expected = bookings.stream().filter(b -> b.getUsername().equals("alice"))
+                .map(Booking::getId).sorted((a, b) -> Long.compare(b, a)).toList();
+        assertEquals(expected, ids);
+
+        String plan = jdbcTemplate.queryForObject("""
+                EXPLAIN SELECT id, ticket_pool_id, quantity, total_price, booked_at FROM bookings
+                 WHERE username = 'alice' AND id < 100 ORDER BY id DESC FETCH FIRST 3 ROWS ONLY
+                """, String.class);
+        assertTrue(plan.contains("IDX_BOOKINGS_USERNAME_ID"), plan);
+    }
+}
@@ -0,0 +1,50 @@
+package task.example.demo.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtServiceTests {
+
+    private static final String SECRET = "jwt-service-test-secret-0123456789abcdef";
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void repeatedTokenIsACacheHitAndTamperedOnesAreStillVerified() {
+        JwtService jwtService = new JwtService(SECRET, 60_000, 120_000, 100, registry);
+        String token = jwtService.generateToken(7L, "alice", 2);
+
+        assertEquals(new VerifiedToken("alice", 7L, 2, jwtService.verify(token).expiresAtMillis()), jwtService.verify(token));
+        assertEquals(1, gets("hit"));
+        assertEquals(1, gets("miss"));
+
+        // A changed signature or payload hashes to a different key and is checked in full.
+        int signature = token.lastIndexOf('.') + 1;
+        String badSignature = token.substring(0, signature) + (token.charAt(signature) == 'A' ? 'B' : 'A') + token.substring(signature + 1);
+        String[] parts = token.split("\\.");
+        String otherPayload = new JwtService(SECRET + "-other", 60_000, 120_000, 100, new SimpleMeterRegistry())
+                .generateToken(7L, "mallory", 2).split("\\.")[1];
+        assertThrows(JwtException.class, () -> jwtService.verify(badSignature));
+        assertThrows(JwtException.class, () -> jwtService.verify(parts[0] + "." + otherPayload + "." + parts[2]));
+        assertEquals(1, gets("hit"));
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+        JwtService jwtService = new JwtService(SECRET, 2_000, 120_000, 100, registry);
+        String token = jwtService.generateToken(7L, "alice", 0);
+        jwtService.verify(token);
+
+        Thread.sleep(2_100); // expiry is truncated to whole seconds
+        assertThrows(JwtException.class, () -> jwtService.verify(token));
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,117 @@
+package task.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.entity.AppUser;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.repository.UserRepository;
+import task.example.demo.service.BookingService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Booking latency while many clients log in at once. {@code bounded} is the default hashing pool,
+ * {@code unbounded} gives every request thread its own hashing worker, which is how login behaved
+ * when BCrypt ran on the request thread. Storm clients honour {@code Retry-After} on a 503.
+ * Run with {@code mvn test -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoginStormBenchmarkTests {
+
+    private static final int LOGIN_CLIENTS = 64;
+    private static final int BOOKING_CLIENTS = 4;
+    private static final long DURATION_MS = 15_000;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void bookingLatencyDuringLoginStorm() throws Exception {
+        run("no storm", 0, "--security.password-hashing.threads=2");
+        run("bounded", LOGIN_CLIENTS, "--security.password-hashing.threads=2",
+                "--security.password-hashing.queue-capacity=32");
+        run("unbounded", LOGIN_CLIENTS, "--security.password-hashing.threads=200",
+                "--security.password-hashing.queue-capacity=100000");
+    }
+
+    private void run(String mode, int loginClients, String... hashing) throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:login-storm-" + mode.replace(' ', '-'),
+                "--booking.processing-delay-ms=0",
+                "--security.rate-limit.enabled=false"));
+        args.addAll(List.of(hashing));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringTasksApplication.class)
+                .run(args.toArray(String[]::new))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            AppUser user = new AppUser();
+            user.setUsername("storm");
+            user.setPasswordHash(context.getBean(PasswordEncoder.class).encode("secret1"));
+            user = context.getBean(UserRepository.class).save(user);
+            String token = context.getBean(JwtService.class).generateToken(user.getId(), user.getUsername(), user.getTokenEpoch());
+            TicketPool pool = context.getBean(BookingService.class).createEvent("Storm", Integer.MAX_VALUE / 2, 10.0);
+
+            HttpRequest login = post(port, "/api/auth/login", "{\"username\":\"storm\",\"password\":\"secret1\"}", null);
+            HttpRequest book = post(port, "/api/book",
+                    "{\"eventId\":" + pool.getId() + ",\"username\":\"storm\",\"quantity\":1}", token);
+
+            AtomicInteger loggedIn = new AtomicInteger();
+            AtomicInteger busy = new AtomicInteger();
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            long end = System.currentTimeMillis() + DURATION_MS;
+            ExecutorService clients = Executors.newFixedThreadPool(loginClients + BOOKING_CLIENTS);
+            for (int i = 0; i < loginClients; i++) {
+                clients.submit(() -> {
+                    while (System.currentTimeMillis() < end) {
+                        int status = client.send(login, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 200) loggedIn.incrementAndGet();
+                        if (status == 503) {
+                            busy.incrementAndGet();
+                            Thread.sleep(1000);
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (int i = 0; i < BOOKING_CLIENTS; i++) {
+                clients.submit(() -> {
+                    while (System.currentTimeMillis() < end) {
+                        long start = System.nanoTime();
+                        client.send(book, HttpResponse.BodyHandlers.discarding());
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    return null;
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(DURATION_MS + 60_000, TimeUnit.MILLISECONDS);
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.printf("%-10s %7.1f logins/s %6d x 503 %8d bookings, p50 %6.1f ms, p99 %7.1f ms%n",
+                    mode, loggedIn.get() * 1000.0 / DURATION_MS, busy.get(), sorted.size(),
+                    sorted.get(sorted.size() / 2) / 1e6, sorted.get((int) (sorted.size() * 0.99)) / 1e6);
+        }
+    }
+
+    private static HttpRequest post(int port, String path, String body, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        return request.build();
+    }
+}
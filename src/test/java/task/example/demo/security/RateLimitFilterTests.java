@@ -0,0 +1,119 @@
+package task.example.demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitFilterTests {
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void userOverLimitGets429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = filter(Map.of("book-user",
+                new RateLimitProperties.Route("POST", List.of("/api/book"), RateLimitProperties.Key.USER, 2, 0.5)));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+
+        assertEquals(200, book(filter, 1).getStatus());
+        assertEquals(200, book(filter, 1).getStatus());
+        MockHttpServletResponse rejected = book(filter, 1);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("bob", null, List.of()));
+        assertEquals(200, book(filter, 1).getStatus());
+    }
+
+    @Test
+    void eventKeyIsReadFromBodyWhichStillReachesTheController() throws Exception {
+        RateLimitFilter filter = filter(Map.of("book-event",
+                new RateLimitProperties.Route("POST", List.of("/api/book"), RateLimitProperties.Key.EVENT, 1, 1)));
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request(1), new MockHttpServletResponse(), chain);
+        assertEquals(body(1), new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+        assertEquals(429, book(filter, 1).getStatus());
+        assertEquals(200, book(filter, 2).getStatus());
+    }
+
+    @Test
+    void oversizedBodyOnAnEventKeyedRouteIsRefusedUnread() throws Exception {
+        RateLimitFilter filter = filter(Map.of("book-event",
+                new RateLimitProperties.Route("POST", List.of("/api/book"), RateLimitProperties.Key.EVENT, 1, 1)));
+        MockHttpServletRequest request = request(1);
+        request.setContent(new byte[RateLimitFilter.MAX_BODY_BYTES + 1]);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertEquals(413, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void cartCountsAgainstEachOfItsEventsInTheBookingBuckets() throws Exception {
+        RateLimitFilter filter = filter(Map.of("book-event", new RateLimitProperties.Route(
+                "POST", List.of("/api/book", "/api/book/cart"), RateLimitProperties.Key.EVENT, 1, 1)));
+
+        assertEquals(200, book(filter, 2).getStatus());
+        assertEquals(429, cart(filter, 2, 3).getStatus());
+        assertEquals(200, cart(filter, 3, 4).getStatus());
+        assertEquals(429, book(filter, 4).getStatus());
+    }
+
+    private static RateLimitFilter filter(Map<String, RateLimitProperties.Route> routes) {
+        RateLimitProperties properties = new RateLimitProperties(true, 1000, 60_000, routes);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        return new RateLimitFilter(new RateLimiter(properties, registry), new ObjectMapper(), properties, registry);
+    }
+
+    private static MockHttpServletResponse book(RateLimitFilter filter, long eventId) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(eventId), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletResponse cart(RateLimitFilter filter, long... eventIds) throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (long eventId : eventIds) {
+            if (!lines.isEmpty()) lines.append(',');
+            lines.append("{\"eventId\":").append(eventId).append(",\"quantity\":1}");
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/book/cart");
+        request.setContentType("application/json");
+        request.setContent(("{\"lines\":[" + lines + "]}").getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(long eventId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/book");
+        request.setContentType("application/json");
+        request.setContent(body(eventId).getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String body(long eventId) {
+        return "{\"eventId\":" + eventId + ",\"username\":\"alice\",\"quantity\":1}";
+    }
+}
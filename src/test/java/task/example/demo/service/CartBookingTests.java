@@ -0,0 +1,62 @@
+package task.example.demo.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import task.example.demo.SpringTasksApplication;
+import task.example.demo.dto.CartLine;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CartBookingTests {
+
+    enum Mode {
+        TRANSACTIONAL(),
+        LEDGER("--booking.ledger.enabled=true"),
+        LEASE("--booking.lease.enabled=true");
+
+        private final String[] args;
+
+        Mode(String... args) {
+            this.args = args;
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Mode.class)
+    void oneSoldOutLineRejectsTheWholeCart(Mode mode) {
+        List<String> args = new ArrayList<>(List.of(mode.args));
+        args.add("--server.port=0");
+        args.add("--booking.processing-delay-ms=0");
+        args.add("--spring.datasource.url=jdbc:h2:mem:cart-" + mode.name().toLowerCase());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringTasksApplication.class)
+                .run(args.toArray(String[]::new))) {
+            BookingService bookingService = context.getBean(BookingService.class);
+            // Created in this order so the short line sits between two that fit.
+            TicketPool first = bookingService.createEvent("Cart First", 10, 10.0);
+            TicketPool scarce = bookingService.createEvent("Cart Scarce", 1, 10.0);
+            TicketPool last = bookingService.createEvent("Cart Last", 10, 10.0);
+
+            CompletionException failure = assertThrows(CompletionException.class, () -> bookingService.bookCartAsync("cart",
+                    List.of(new CartLine(first.getId(), 2), new CartLine(scarce.getId(), 2), new CartLine(last.getId(), 3))).join());
+            BookingRejectedException rejected = assertInstanceOf(BookingRejectedException.class, failure.getCause());
+            assertEquals(BookingRejectedException.Reason.SOLD_OUT, rejected.getReason());
+            assertEquals(scarce.getId(), rejected.getEventId());
+
+            // Nothing was kept from the other lines: every ticket can still be booked.
+            List<Booking> bookings = bookingService.bookCartAsync("cart", List.of(new CartLine(first.getId(), 10),
+                    new CartLine(scarce.getId(), 1), new CartLine(last.getId(), 10))).join();
+            assertEquals(List.of(10, 1, 10), bookings.stream().map(Booking::getQuantity).toList());
+        }
+    }
+}
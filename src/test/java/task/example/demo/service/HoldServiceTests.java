@@ -0,0 +1,133 @@
+package task.example.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+import task.example.demo.dto.HoldView;
+import task.example.demo.entity.Booking;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.inventory.AvailabilityIndex;
+import task.example.demo.inventory.InventoryLedger;
+import task.example.demo.inventory.QuotaLeases;
+import task.example.demo.journal.BookingJournal;
+import task.example.demo.replica.ReadRouting;
+import task.example.demo.repository.BookingRepository;
+import task.example.demo.repository.SeatHoldRepository;
+import task.example.demo.repository.TicketPoolRepository;
+import task.example.demo.stats.SalesAggregates;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:hold-tests")
+class HoldServiceTests {
+
+    private static final long TTL_MS = 300;
+    private static final long TICK_MS = 20;
+
+    @Autowired
+    private TicketPoolRepository ticketPoolRepository;
+
+    @Autowired
+    private SeatHoldRepository seatHoldRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
+
+    @Autowired
+    private QuotaLeases quotaLeases;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BookingJournal journal;
+
+    @Autowired
+    private SalesAggregates salesAggregates;
+
+    @Autowired
+    private ReadRouting readRouting;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Expiry runs only when a test moves this clock and turns the wheel.
+    private final AtomicLong nanos = new AtomicLong();
+    private HoldService holdService;
+
+    @BeforeEach
+    void startHoldService() {
+        holdService = new HoldService(ticketPoolRepository, seatHoldRepository, bookingRepository, inventoryLedger, quotaLeases,
+                availabilityIndex, journal, salesAggregates, readRouting, transactionTemplate, eventPublisher, meterRegistry,
+                TTL_MS, TICK_MS, 64, nanos::get);
+    }
+
+    @AfterEach
+    void stopHoldService() throws InterruptedException {
+        holdService.shutdown();
+    }
+
+    @Test
+    void confirmedHoldBecomesBookingAndIsNotReleased() throws Exception {
+        TicketPool pool = ticketPoolRepository.save(new TicketPool("Hold Confirm", 5, 10.0));
+
+        HoldView hold = holdService.hold(pool.getId(), "alice", 2);
+        assertEquals(3, available(pool));
+
+        Booking booking = holdService.confirm(hold.id(), "alice");
+        assertEquals(2, booking.getQuantity());
+        assertEquals(20.0, booking.getTotalPrice());
+
+        advance(2 * TTL_MS);
+        assertEquals(3, available(pool));
+        assertThrows(RuntimeException.class, () -> holdService.confirm(hold.id(), "alice"));
+    }
+
+    @Test
+    void unconfirmedHoldIsReleasedAfterTtl() throws Exception {
+        TicketPool pool = ticketPoolRepository.save(new TicketPool("Hold Expiry", 5, 10.0));
+
+        HoldView hold = holdService.hold(pool.getId(), "bob", 5);
+        assertEquals(0, available(pool));
+        assertThrows(RuntimeException.class, () -> holdService.hold(pool.getId(), "carol", 1));
+        assertThrows(RuntimeException.class, () -> holdService.confirm(hold.id(), "carol"));
+
+        advance(TTL_MS - TICK_MS);
+        assertEquals(0, available(pool));
+        assertTrue(seatHoldRepository.existsById(hold.id()));
+
+        advance(2 * TICK_MS);
+        assertEquals(5, available(pool));
+        assertFalse(seatHoldRepository.existsById(hold.id()));
+        assertThrows(RuntimeException.class, () -> holdService.confirm(hold.id(), "bob"));
+    }
+
+    private void advance(long ms) throws InterruptedException {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+        holdService.expireDue();
+    }
+
+    private int available(TicketPool pool) {
+        return ticketPoolRepository.findById(pool.getId()).orElseThrow().getAvailableTickets();
+    }
+}
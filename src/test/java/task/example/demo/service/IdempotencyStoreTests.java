@@ -0,0 +1,51 @@
+package task.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTests {
+
+    private final IdempotencyStore store = new IdempotencyStore(60_000, 1000, new SimpleMeterRegistry());
+
+    @Test
+    void duplicatesShareTheInFlightResultAndReplayIt() {
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<String> booking = new CompletableFuture<>();
+
+        CompletableFuture<String> first = store.execute("alice:k1", "1|alice|2", () -> {
+            runs.incrementAndGet();
+            return booking;
+        });
+        CompletableFuture<String> duplicate = store.execute("alice:k1", "1|alice|2", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        });
+        assertFalse(duplicate.isDone());
+
+        booking.complete("booking-1");
+        assertEquals("booking-1", duplicate.join());
+        assertSame(first, store.execute("alice:k1", "1|alice|2", () -> CompletableFuture.completedFuture("third")));
+        assertEquals(1, runs.get());
+
+        assertTrue(store.execute("alice:k1", "1|alice|5", () -> CompletableFuture.completedFuture("other"))
+                .isCompletedExceptionally());
+    }
+
+    @Test
+    void failuresAreNotKept() {
+        CompletableFuture<String> failed = store.execute("bob:k1", "1|bob|1",
+                () -> CompletableFuture.failedFuture(new RuntimeException("Not enough tickets available")));
+        assertTrue(failed.isCompletedExceptionally());
+
+        assertEquals("booking-2", store.execute("bob:k1", "1|bob|1",
+                () -> CompletableFuture.completedFuture("booking-2")).join());
+    }
+}
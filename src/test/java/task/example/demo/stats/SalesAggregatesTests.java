@@ -0,0 +1,51 @@
+package task.example.demo.stats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import task.example.demo.dto.CartLine;
+import task.example.demo.dto.EventStats;
+import task.example.demo.entity.TicketPool;
+import task.example.demo.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "booking.processing-delay-ms=0",
+        "spring.datasource.url=jdbc:h2:mem:sales-aggregates"
+})
+class SalesAggregatesTests {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SalesAggregates salesAggregates;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookingsUpdateAggregatesAndReconcileFixesPersistentDrift() {
+        TicketPool concert = bookingService.createEvent("Stats Concert", 100, 10.0);
+        TicketPool jazz = bookingService.createEvent("Stats Jazz", 100, 2.5);
+        bookingService.bookTickets(concert.getId(), "alice", 3);
+        bookingService.bookCartAsync("bob", List.of(new CartLine(concert.getId(), 1), new CartLine(jazz.getId(), 4))).join();
+
+        assertEquals(new EventStats(concert.getId(), 4, 2, 40.0), salesAggregates.event(concert.getId()));
+        assertEquals(new EventStats(jazz.getId(), 4, 1, 10.0), salesAggregates.event(jazz.getId()));
+        assertEquals(0, salesAggregates.reconcile());
+
+        // A row written behind the aggregates' back.
+        jdbcTemplate.update("INSERT INTO bookings (id, username, ticket_pool_id, quantity, total_price, booked_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", 1_000_000L, "carol", jazz.getId(), 2, 5.0, LocalDateTime.now());
+        assertEquals(0, salesAggregates.reconcile());
+        assertEquals(1, salesAggregates.reconcile());
+        assertEquals(new EventStats(jazz.getId(), 6, 2, 15.0), salesAggregates.event(jazz.getId()));
+        assertEquals(0, salesAggregates.reconcile());
+    }
+}